@@ -0,0 +1,4 @@
+package com.notaris.license_system.crypto;
+
+public record IssuedLicense(String token, LicensePayload payload) {
+}
@@ -0,0 +1,127 @@
+package com.notaris.license_system.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+public class LicenseGenerator {
+    private static final Base64.Encoder URL_B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private final PrivateKey privateKey;
+    private final SecretKeySpec aesKey;
+    private final StageTimer timer;
+    private final String header;
+    // Signature and Cipher are not thread-safe, but are costly to look up per call
+    private final ThreadLocal<Signature> signature;
+    private final ThreadLocal<Cipher> cipher = ThreadLocal.withInitial(() -> newCipher());
+
+    public LicenseGenerator(PrivateKey privateKey, byte[] aesKey) {
+        this(privateKey, null, aesKey, StageTimer.NONE);
+    }
+
+    /**
+     * @param keyId written into the token header so validators can pick the matching public key; may be null
+     */
+    public LicenseGenerator(PrivateKey privateKey, String keyId, byte[] aesKey, StageTimer timer) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.of(privateKey);
+        this.privateKey = privateKey;
+        this.aesKey = aesKey != null ? new SecretKeySpec(aesKey, "AES") : null;
+        this.timer = timer;
+        this.signature = ThreadLocal.withInitial(algorithm::newSignature);
+        try {
+            this.header = URL_B64.encodeToString(
+                    TokenCodec.writeHeader(new TokenCodec.Header(algorithm.header(), keyId)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String generate(String customerId,
+            int daysValid,
+            String hwFingerprint,
+            Map<String, Object> metadata,
+            Integer usageLimit,
+            String version) {
+        return issue(customerId, daysValid, hwFingerprint, metadata, usageLimit, version).token();
+    }
+
+    /**
+     * Like {@link #generate} but also hands back the payload that was signed, so callers need not decode the token.
+     */
+    public IssuedLicense issue(String customerId,
+            int daysValid,
+            String hwFingerprint,
+            Map<String, Object> metadata,
+            Integer usageLimit,
+            String version) {
+        try {
+            Instant now = Instant.now();
+            if (TokenCodec.isBinary(version))
+                now = now.truncatedTo(ChronoUnit.SECONDS);
+            LicensePayload payload = new LicensePayload(version, customerId, now,
+                    now.plus(daysValid, ChronoUnit.DAYS), UUID.randomUUID().toString(), hwFingerprint,
+                    metadata != null ? metadata : new LinkedHashMap<>(), usageLimit);
+
+            long t = System.nanoTime();
+            byte[] body = TokenCodec.writePayload(payload);
+            long mark = System.nanoTime();
+            timer.record(StageTimer.Stage.SERIALIZE, mark - t);
+            t = mark;
+            String payloadB64;
+            if (aesKey != null) {
+                byte[] combined = new byte[12 + body.length + 16];
+                byte[] nonce = new byte[12];
+                RANDOM.nextBytes(nonce);
+                System.arraycopy(nonce, 0, combined, 0, nonce.length);
+                Cipher c = cipher.get();
+                c.init(Cipher.ENCRYPT_MODE, aesKey, new GCMParameterSpec(128, nonce));
+                c.doFinal(body, 0, body.length, combined, nonce.length);
+                payloadB64 = URL_B64.encodeToString(combined);
+                mark = System.nanoTime();
+                timer.record(StageTimer.Stage.ENCRYPT, mark - t);
+                t = mark;
+            } else {
+                payloadB64 = URL_B64.encodeToString(body);
+            }
+            String signed = header + "." + payloadB64;
+            byte[] sigBytes = sign(signed.getBytes(StandardCharsets.US_ASCII));
+            String sigB64 = URL_B64.encodeToString(sigBytes);
+            timer.record(StageTimer.Stage.SIGN, System.nanoTime() - t);
+            return new IssuedLicense(signed + "." + sigB64, payload);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private byte[] sign(byte[] data) throws Exception {
+        Signature s = signature.get();
+        s.initSign(privateKey);
+        s.update(data);
+        return s.sign();
+    }
+
+    static Signature newInstance(String algorithm) {
+        try {
+            return Signature.getInstance(algorithm);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static Cipher newCipher() {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.notaris.license_system.crypto;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * PEM loading and key ids using only the JDK providers. Load a key once and keep the validator built on it; parsing
+ * is far more expensive than a validation.
+ */
+public final class LicenseKeys {
+    // key factories tried in order when loading a PEM, covering every SignatureAlgorithm
+    private static final String[] KEY_ALGORITHMS = { "EC", "Ed25519" };
+
+    private LicenseKeys() {
+    }
+
+    public static PublicKey loadPublic(Path path) {
+        try {
+            return parsePublic(Files.readString(path));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static PrivateKey loadPrivate(Path path) {
+        try {
+            return parsePrivate(Files.readString(path));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static PublicKey parsePublic(String pem) throws Exception {
+        byte[] der = parsePem(pem);
+        for (String alg : KEY_ALGORITHMS) {
+            try {
+                return KeyFactory.getInstance(alg).generatePublic(new X509EncodedKeySpec(der));
+            } catch (InvalidKeySpecException ignored) {
+            }
+        }
+        throw new InvalidKeySpecException("Unsupported public key");
+    }
+
+    public static PrivateKey parsePrivate(String pem) throws Exception {
+        byte[] der = parsePem(pem);
+        for (String alg : KEY_ALGORITHMS) {
+            try {
+                return KeyFactory.getInstance(alg).generatePrivate(new PKCS8EncodedKeySpec(der));
+            } catch (InvalidKeySpecException ignored) {
+            }
+        }
+        throw new InvalidKeySpecException("Unsupported private key");
+    }
+
+    /**
+     * Short identifier of a public key (first 8 bytes of the SHA-256 of its encoding, hex), written into the token
+     * header as {@code kid}.
+     */
+    public static String keyId(PublicKey key) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return HexFormat.of().formatHex(d, 0, 8);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static byte[] parsePem(String pem) {
+        String body = pem.replaceAll("-----BEGIN [^-]+-----", "")
+                .replaceAll("-----END [^-]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+}
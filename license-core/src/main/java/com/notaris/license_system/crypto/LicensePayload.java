@@ -0,0 +1,39 @@
+package com.notaris.license_system.crypto;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The signed content of a license token.
+ */
+public record LicensePayload(String version,
+        String customerId,
+        Instant issueDate,
+        Instant expiryDate,
+        String uuid,
+        String hwFingerprint,
+        Map<String, Object> metadata,
+        Integer usageLimit) {
+
+    public LicensePayload {
+        metadata = metadata != null ? Collections.unmodifiableMap(metadata) : Map.of();
+    }
+
+    /**
+     * The payload in its wire shape ({@code customer_id}, ISO-8601 dates, ...), as returned by the API.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("version", version);
+        m.put("customer_id", customerId);
+        m.put("issue_date", issueDate != null ? issueDate.toString() : null);
+        m.put("expiry_date", expiryDate != null ? expiryDate.toString() : null);
+        m.put("uuid", uuid);
+        m.put("hw_fingerprint", hwFingerprint);
+        m.put("metadata", metadata);
+        m.put("usage_limit", usageLimit);
+        return m;
+    }
+}
@@ -0,0 +1,178 @@
+package com.notaris.license_system.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.time.Instant;
+import java.util.*;
+
+public class LicenseValidator {
+    private static final Base64.Decoder URL_DEC = Base64.getUrlDecoder();
+    private final Map<String, Verifier> byKeyId = new HashMap<>();
+    private final List<Verifier> verifiers = new ArrayList<>();
+    private final SecretKeySpec aesKey;
+    private final RevocationChecker revocationChecker;
+    private final StageTimer timer;
+    private final ThreadLocal<Cipher> cipher = ThreadLocal.withInitial(LicenseGenerator::newCipher);
+
+    public interface RevocationChecker {
+        boolean isRevoked(String uuid);
+    }
+
+    public enum Outcome {
+        VALID, EXPIRED, REVOKED, BAD_SIGNATURE, HW_MISMATCH, MALFORMED, USAGE_EXCEEDED
+    }
+
+    private record Verifier(SignatureAlgorithm algorithm, PublicKey key, ThreadLocal<Signature> signature) {
+    }
+
+    public LicenseValidator(PublicKey publicKey, byte[] aesKey, RevocationChecker revocationChecker) {
+        this(List.of(publicKey), aesKey, revocationChecker, StageTimer.NONE);
+    }
+
+    /**
+     * @param publicKeys the current public key first, followed by retired keys whose tokens must still validate
+     */
+    public LicenseValidator(List<? extends PublicKey> publicKeys, byte[] aesKey, RevocationChecker revocationChecker,
+            StageTimer timer) {
+        for (PublicKey key : publicKeys) {
+            SignatureAlgorithm algorithm = SignatureAlgorithm.of(key);
+            Verifier v = new Verifier(algorithm, key, ThreadLocal.withInitial(algorithm::newSignature));
+            verifiers.add(v);
+            byKeyId.putIfAbsent(LicenseKeys.keyId(key), v);
+        }
+        this.aesKey = aesKey != null ? new SecretKeySpec(aesKey, "AES") : null;
+        this.revocationChecker = revocationChecker;
+        this.timer = timer;
+    }
+
+    public ValidationResult validate(String license, String hwFingerprint) {
+        try {
+            LicensePayload payload = decode(license);
+            if (payload == null)
+                return ValidationResult.invalid(null, false, Outcome.BAD_SIGNATURE);
+            long t = System.nanoTime();
+            boolean revoked = payload.uuid() != null && revocationChecker.isRevoked(payload.uuid());
+            timer.record(StageTimer.Stage.REVOCATION, System.nanoTime() - t);
+            return check(payload, hwFingerprint, revoked);
+        } catch (Exception e) {
+            return ValidationResult.invalid(null, false, Outcome.MALFORMED);
+        }
+    }
+
+    /**
+     * Verifies the signature and returns the decoded payload, or {@code null} if the signature does not match or no
+     * known key matches the token header. A token that cannot be taken apart, decrypted or parsed raises an
+     * exception. The token is decoded from a single buffer; decryption happens in place.
+     */
+    public LicensePayload decode(String license) throws Exception {
+        long start = System.nanoTime();
+        byte[] token = license.getBytes(StandardCharsets.US_ASCII);
+        int dot = TokenCodec.separator(token);
+        if (dot < 0)
+            throw new IllegalArgumentException("Malformed license token");
+        int headerDot = TokenCodec.headerSeparator(token, dot);
+        ByteBuffer sig = URL_DEC.decode(ByteBuffer.wrap(token, dot + 1, token.length - dot - 1));
+        boolean verified = verify(token, headerDot, dot, sig);
+        long t = System.nanoTime();
+        timer.record(StageTimer.Stage.VERIFY, t - start);
+        if (!verified)
+            return null;
+
+        int from = headerDot + 1;
+        ByteBuffer decoded = URL_DEC.decode(ByteBuffer.wrap(token, from, dot - from));
+        byte[] payload = decoded.array();
+        int len = decoded.remaining();
+        if (aesKey != null && len > 12) {
+            Cipher c = cipher.get();
+            c.init(Cipher.DECRYPT_MODE, aesKey, new GCMParameterSpec(128, payload, 0, 12));
+            len = c.doFinal(payload, 12, len - 12, payload, 0);
+            long now = System.nanoTime();
+            timer.record(StageTimer.Stage.DECRYPT, now - t);
+            t = now;
+        }
+        LicensePayload parsed = TokenCodec.readPayload(payload, 0, len);
+        timer.record(StageTimer.Stage.PARSE, System.nanoTime() - t);
+        return parsed;
+    }
+
+    /**
+     * Applies the time- and caller-dependent checks to an already decoded payload.
+     */
+    public ValidationResult check(LicensePayload payload, String hwFingerprint, boolean revoked) {
+        if (payload.expiryDate() == null)
+            return ValidationResult.invalid(null, false, Outcome.MALFORMED);
+        Map<String, Object> data = payload.toMap();
+        if (Instant.now().isAfter(payload.expiryDate()))
+            return ValidationResult.invalid(data, revoked, Outcome.EXPIRED);
+        String boundHw = payload.hwFingerprint();
+        if (boundHw != null) {
+            if (hwFingerprint == null || !Objects.equals(boundHw, hwFingerprint))
+                return ValidationResult.invalid(data, revoked, Outcome.HW_MISMATCH);
+        } else if (hwFingerprint != null) {
+            return ValidationResult.invalid(data, revoked, Outcome.HW_MISMATCH);
+        }
+        if (revoked)
+            return ValidationResult.invalid(data, true, Outcome.REVOKED);
+        return new ValidationResult(true, data, false, Outcome.VALID);
+    }
+
+    private boolean verify(byte[] token, int headerDot, int len, ByteBuffer sig) throws Exception {
+        if (headerDot < 0) {
+            // legacy token without header: always P-521
+            for (Verifier v : verifiers)
+                if (v.algorithm() == SignatureAlgorithm.ES512 && verify(v, token, len, sig))
+                    return true;
+            return false;
+        }
+        ByteBuffer h = URL_DEC.decode(ByteBuffer.wrap(token, 0, headerDot));
+        TokenCodec.Header header = TokenCodec.readHeader(h.array(), 0, h.remaining());
+        SignatureAlgorithm algorithm = SignatureAlgorithm.fromHeader(header.alg());
+        Verifier v = header.kid() != null ? byKeyId.get(header.kid()) : verifiers.get(0);
+        return v != null && v.algorithm() == algorithm && verify(v, token, len, sig);
+    }
+
+    private static boolean verify(Verifier v, byte[] token, int len, ByteBuffer sig) throws Exception {
+        Signature s = v.signature().get();
+        s.initVerify(v.key());
+        s.update(token, 0, len);
+        try {
+            return s.verify(sig.array(), sig.arrayOffset() + sig.position(), sig.remaining());
+        } catch (SignatureException e) {
+            // not a well-formed signature encoding
+            return false;
+        }
+    }
+
+    public static String hardwareFingerprint() {
+        String os = System.getProperty("os.name");
+        int cores = Runtime.getRuntime().availableProcessors();
+        String arch = System.getProperty("os.arch");
+        String basis = cores + "-" + os + "-" + arch;
+        return sha256Hex(basis.getBytes());
+    }
+
+    private static String sha256Hex(byte[] input) {
+        try {
+            var md = java.security.MessageDigest.getInstance("SHA-256");
+            byte[] d = md.digest(input);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : d)
+                sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public record ValidationResult(boolean valid, Map<String, Object> data, boolean revoked, Outcome outcome) {
+        public static ValidationResult invalid(Map<String, Object> data, boolean revoked, Outcome outcome) {
+            return new ValidationResult(false, data, revoked, outcome);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.notaris.license_system.crypto;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Client-side revocation checker fed from {@link RevocationSnapshot}s, for validating offline. Start from a full
+ * snapshot, then apply deltas fetched with {@code since=}{@link #sequence()}. UUIDs live in an open-addressed table
+ * of longs, so {@link #isRevoked} is a constant-time, allocation-free probe; each update builds a new table and
+ * swaps it in, so lookups never block.
+ */
+public final class RevocationList implements LicenseValidator.RevocationChecker {
+    private volatile State state = new State(0, new long[32], Set.of(), 0);
+
+    private static final class State {
+        final long sequence;
+        // msb/lsb pairs; a zero msb marks an empty slot
+        final long[] slots;
+        final int mask;
+        final Set<String> others;
+        final int size;
+
+        State(long sequence, long[] slots, Set<String> others, int size) {
+            this.sequence = sequence;
+            this.slots = slots;
+            this.mask = slots.length / 2 - 1;
+            this.others = others;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Sequence of the last applied snapshot; 0 before any.
+     */
+    public long sequence() {
+        return state.sequence;
+    }
+
+    public int size() {
+        State s = state;
+        return s.size + s.others.size();
+    }
+
+    /**
+     * Replaces the list with a full snapshot or adds a delta on top of it.
+     *
+     * @throws IllegalStateException if a delta does not start at {@link #sequence()}; fetch a full snapshot instead
+     */
+    public synchronized void apply(RevocationSnapshot snapshot) {
+        State current = state;
+        if (snapshot.isDelta() && snapshot.fromSequence() != current.sequence)
+            throw new IllegalStateException("Delta from " + snapshot.fromSequence() + " does not apply to sequence "
+                    + current.sequence);
+        long[] bits = snapshot.bits();
+        int existing = snapshot.isDelta() ? current.size : 0;
+        long[] slots = new long[tableLength(existing + bits.length / 2)];
+        int size = 0;
+        if (snapshot.isDelta()) {
+            for (int i = 0; i < current.slots.length; i += 2)
+                if (current.slots[i] != 0 && insert(slots, current.slots[i], current.slots[i + 1]))
+                    size++;
+        }
+        for (int i = 0; i < bits.length; i += 2)
+            if (insert(slots, bits[i], bits[i + 1]))
+                size++;
+        Set<String> others = new HashSet<>();
+        if (snapshot.isDelta())
+            others.addAll(current.others);
+        others.addAll(snapshot.others());
+        state = new State(snapshot.toSequence(), slots, Set.copyOf(others), size);
+    }
+
+    @Override
+    public boolean isRevoked(String uuid) {
+        State s = state;
+        UUID u = RevocationSnapshot.parse(uuid);
+        if (u == null)
+            return !s.others.isEmpty() && s.others.contains(uuid);
+        long msb = u.getMostSignificantBits();
+        long lsb = u.getLeastSignificantBits();
+        long[] slots = s.slots;
+        for (int i = (int) mix(msb, lsb) & s.mask;; i = (i + 1) & s.mask) {
+            long m = slots[i * 2];
+            if (m == 0)
+                return false;
+            if (m == msb && slots[i * 2 + 1] == lsb)
+                return true;
+        }
+    }
+
+    private static boolean insert(long[] slots, long msb, long lsb) {
+        int mask = slots.length / 2 - 1;
+        for (int i = (int) mix(msb, lsb) & mask;; i = (i + 1) & mask) {
+            long m = slots[i * 2];
+            if (m == msb && slots[i * 2 + 1] == lsb)
+                return false;
+            if (m == 0) {
+                slots[i * 2] = msb;
+                slots[i * 2 + 1] = lsb;
+                return true;
+            }
+        }
+    }
+
+    // at most half full, so probe sequences stay short
+    private static int tableLength(int entries) {
+        int slotCount = Integer.highestOneBit(Math.max(16, entries * 2) - 1) << 1;
+        return slotCount * 2;
+    }
+
+    private static long mix(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
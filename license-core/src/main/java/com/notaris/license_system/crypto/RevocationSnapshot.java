@@ -0,0 +1,224 @@
+package com.notaris.license_system.crypto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Signed binary list of revoked license uuids, either the full set ({@link #isDelta()} false) or the revocations
+ * between two sequence numbers. Layout, big-endian:
+ * <pre>
+ * "LRV1" | alg (UTF) | kid (UTF) | kind (byte: 0 full, 1 delta) | from (long) | to (long) | issued-at millis (long)
+ * | n (int) | n x (msb long, lsb long), sorted | m (int) | m x uuid (UTF)   -- signed up to here
+ * | signature length (int) | signature
+ * </pre>
+ * UUIDs not in canonical lowercase form are carried as strings and match exactly. Apply snapshots to a
+ * {@link RevocationList}.
+ */
+public final class RevocationSnapshot {
+    private static final byte[] MAGIC = { 'L', 'R', 'V', '1' };
+
+    private final boolean delta;
+    private final long fromSequence;
+    private final long toSequence;
+    private final Instant issuedAt;
+    // msb/lsb pairs, sorted by msb then lsb
+    private final long[] bits;
+    private final List<String> others;
+
+    private RevocationSnapshot(boolean delta, long fromSequence, long toSequence, Instant issuedAt, long[] bits,
+            List<String> others) {
+        this.delta = delta;
+        this.fromSequence = fromSequence;
+        this.toSequence = toSequence;
+        this.issuedAt = issuedAt;
+        this.bits = bits;
+        this.others = others;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    /**
+     * Sequence a delta applies on top of; 0 for a full snapshot.
+     */
+    public long fromSequence() {
+        return fromSequence;
+    }
+
+    public long toSequence() {
+        return toSequence;
+    }
+
+    public Instant issuedAt() {
+        return issuedAt;
+    }
+
+    public int size() {
+        return bits.length / 2 + others.size();
+    }
+
+    long[] bits() {
+        return bits;
+    }
+
+    List<String> others() {
+        return others;
+    }
+
+    /**
+     * Encodes and signs a snapshot. {@code fromSequence} is ignored (written as 0) for a full snapshot.
+     */
+    public static byte[] write(boolean delta, long fromSequence, long toSequence, Instant issuedAt,
+            Collection<String> uuids, PrivateKey key, String keyId) throws GeneralSecurityException {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.of(key);
+        long[] bits = new long[uuids.size() * 2];
+        int n = 0;
+        List<String> others = new ArrayList<>();
+        for (String uuid : uuids) {
+            UUID u = parse(uuid);
+            if (u == null) {
+                others.add(uuid);
+                continue;
+            }
+            bits[n++] = u.getMostSignificantBits();
+            bits[n++] = u.getLeastSignificantBits();
+        }
+        bits = sort(Arrays.copyOf(bits, n));
+        try {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(64 + n * 8);
+            DataOutputStream out = new DataOutputStream(buf);
+            out.write(MAGIC);
+            out.writeUTF(algorithm.header());
+            out.writeUTF(keyId != null ? keyId : "");
+            out.writeByte(delta ? 1 : 0);
+            out.writeLong(delta ? fromSequence : 0);
+            out.writeLong(toSequence);
+            out.writeLong(issuedAt.toEpochMilli());
+            out.writeInt(n / 2);
+            for (long b : bits)
+                out.writeLong(b);
+            out.writeInt(others.size());
+            for (String s : others)
+                out.writeUTF(s);
+            out.flush();
+            byte[] body = buf.toByteArray();
+            Signature s = algorithm.newSignature();
+            s.initSign(key);
+            s.update(body);
+            byte[] sig = s.sign();
+            out.writeInt(sig.length);
+            out.write(sig);
+            out.flush();
+            return buf.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes a snapshot and checks its signature against the key named by its kid, or any of {@code keys} with the
+     * same algorithm when it has none.
+     *
+     * @throws SignatureException if no key verifies the signature
+     */
+    public static RevocationSnapshot read(byte[] data, List<? extends PublicKey> keys)
+            throws GeneralSecurityException {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC))
+                throw new IllegalArgumentException("Not a revocation snapshot");
+            SignatureAlgorithm algorithm = SignatureAlgorithm.fromHeader(in.readUTF());
+            String kid = in.readUTF();
+            boolean delta = in.readByte() == 1;
+            long from = in.readLong();
+            long to = in.readLong();
+            Instant issuedAt = Instant.ofEpochMilli(in.readLong());
+            int n = in.readInt();
+            if (n < 0 || n > data.length / 16)
+                throw new IllegalArgumentException("Corrupt revocation snapshot");
+            long[] bits = new long[n * 2];
+            for (int i = 0; i < bits.length; i++)
+                bits[i] = in.readLong();
+            int m = in.readInt();
+            if (m < 0 || m > data.length / 2)
+                throw new IllegalArgumentException("Corrupt revocation snapshot");
+            List<String> others = new ArrayList<>(m);
+            for (int i = 0; i < m; i++)
+                others.add(in.readUTF());
+            int bodyLength = data.length - in.available();
+            int sigLength = in.readInt();
+            if (sigLength < 0 || sigLength > in.available())
+                throw new IllegalArgumentException("Corrupt revocation snapshot");
+            byte[] sig = new byte[sigLength];
+            in.readFully(sig);
+            if (!verify(algorithm, kid, keys, data, bodyLength, sig))
+                throw new SignatureException("Revocation snapshot signature does not verify");
+            return new RevocationSnapshot(delta, from, to, issuedAt, bits, List.copyOf(others));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated revocation snapshot", e);
+        }
+    }
+
+    private static boolean verify(SignatureAlgorithm algorithm, String kid, List<? extends PublicKey> keys,
+            byte[] data, int length, byte[] sig) throws GeneralSecurityException {
+        for (PublicKey key : keys) {
+            if (SignatureAlgorithm.of(key) != algorithm || (!kid.isEmpty() && !kid.equals(LicenseKeys.keyId(key))))
+                continue;
+            Signature s = algorithm.newSignature();
+            s.initVerify(key);
+            s.update(data, 0, length);
+            try {
+                if (s.verify(sig))
+                    return true;
+            } catch (SignatureException e) {
+                // malformed signature encoding: try the next key
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Only canonical lowercase uuids are packed: {@link UUID#fromString} ignores case, and packing "ABC..." would
+     * make it match "abc...", which the server treats as a different license.
+     */
+    static UUID parse(String uuid) {
+        UUID u = TokenCodec.canonicalUuid(uuid);
+        // a zero high half marks an empty slot in RevocationList
+        return u != null && u.getMostSignificantBits() != 0 ? u : null;
+    }
+
+    private static long[] sort(long[] bits) {
+        int n = bits.length / 2;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int c = Long.compare(bits[a * 2], bits[b * 2]);
+            return c != 0 ? c : Long.compare(bits[a * 2 + 1], bits[b * 2 + 1]);
+        });
+        long[] sorted = new long[bits.length];
+        for (int i = 0; i < n; i++) {
+            sorted[i * 2] = bits[order[i] * 2];
+            sorted[i * 2 + 1] = bits[order[i] * 2 + 1];
+        }
+        return sorted;
+    }
+}
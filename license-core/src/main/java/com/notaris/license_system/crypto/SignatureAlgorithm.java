@@ -0,0 +1,65 @@
+package com.notaris.license_system.crypto;
+
+import java.security.Key;
+import java.security.Signature;
+import java.security.interfaces.ECKey;
+
+/**
+ * Signature schemes a license key pair can use. The {@link #header()} name is written into the token header (JWS
+ * names) so the validator can tell which scheme signed a token; tokens without a header are always {@link #ES512}.
+ */
+public enum SignatureAlgorithm {
+    ES512("ES512", "SHA512withECDSA", "P-521"),
+    ES256("ES256", "SHA256withECDSA", "P-256"),
+    ED25519("EdDSA", "Ed25519", null);
+
+    private final String header;
+    private final String jcaName;
+    private final String curve;
+
+    SignatureAlgorithm(String header, String jcaName, String curve) {
+        this.header = header;
+        this.jcaName = jcaName;
+        this.curve = curve;
+    }
+
+    public String header() {
+        return header;
+    }
+
+    public String jcaName() {
+        return jcaName;
+    }
+
+    /**
+     * Named EC curve, or {@code null} for Ed25519.
+     */
+    public String curve() {
+        return curve;
+    }
+
+    Signature newSignature() {
+        return LicenseGenerator.newInstance(jcaName);
+    }
+
+    public static SignatureAlgorithm of(Key key) {
+        if (key instanceof ECKey ec) {
+            int bits = ec.getParams().getCurve().getField().getFieldSize();
+            if (bits == 521)
+                return ES512;
+            if (bits == 256)
+                return ES256;
+            throw new IllegalArgumentException("Unsupported EC curve size " + bits);
+        }
+        if ("Ed25519".equals(key.getAlgorithm()) || "EdDSA".equals(key.getAlgorithm()))
+            return ED25519;
+        throw new IllegalArgumentException("Unsupported key algorithm " + key.getAlgorithm());
+    }
+
+    public static SignatureAlgorithm fromHeader(String name) {
+        for (SignatureAlgorithm a : values())
+            if (a.header.equals(name))
+                return a;
+        throw new IllegalArgumentException("Unknown signature algorithm " + name);
+    }
+}
@@ -0,0 +1,17 @@
+package com.notaris.license_system.crypto;
+
+/**
+ * Receives how long each step of generating or validating a token took, so callers can record metrics without this
+ * package depending on a metrics library.
+ */
+@FunctionalInterface
+public interface StageTimer {
+    StageTimer NONE = (stage, nanos) -> {
+    };
+
+    enum Stage {
+        SERIALIZE, ENCRYPT, SIGN, VERIFY, DECRYPT, PARSE, REVOCATION
+    }
+
+    void record(Stage stage, long nanos);
+}
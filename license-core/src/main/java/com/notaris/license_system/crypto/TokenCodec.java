@@ -0,0 +1,416 @@
+package com.notaris.license_system.crypto;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads and writes the JSON header and payload of a token with the streaming Jackson API, and locates the parts of a
+ * token ({@code headerB64.payloadB64.signatureB64}, or the legacy {@code payloadB64.signatureB64}) without splitting
+ * or copying it.
+ * <p>
+ * Payloads of version 3.x are written in a compact binary layout instead of JSON, big-endian:
+ * <pre>
+ * 0xB3 | flags (byte) | version (str) | issue date, epoch seconds (long) | expiry date, epoch seconds (long)
+ * | uuid (16 bytes, or str) | customer id (str) | hw fingerprint (32 bytes, or str; if present)
+ * | usage limit (int; if present) | metadata JSON (str; if present)
+ * </pre>
+ * where {@code str} is a varint of the UTF-8 length plus one (0 for null) followed by the bytes. A uuid in canonical
+ * form and a fingerprint of 64 lowercase hex digits (a SHA-256, as {@link LicenseValidator#hardwareFingerprint()}
+ * computes) are stored as raw bytes. {@link #readPayload} tells the formats apart by the first byte, which is never
+ * {@code '{'} for a binary payload.
+ */
+public final class TokenCodec {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final byte BINARY_MAGIC = (byte) 0xB3;
+    private static final int UUID_BYTES = 1, HW = 2, HW_BYTES = 4, USAGE_LIMIT = 8, METADATA = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private TokenCodec() {
+    }
+
+    public record Header(String alg, String kid) {
+    }
+
+    /**
+     * Index of the {@code '.'} in front of the signature, or -1 if the token is not made of two or three non-empty
+     * parts.
+     */
+    public static int separator(byte[] token) {
+        int first = -1, last = -1, dots = 0;
+        for (int i = 0; i < token.length; i++) {
+            if (token[i] == '.') {
+                if (++dots > 2)
+                    return -1;
+                if (first < 0)
+                    first = i;
+                else if (i == first + 1)
+                    return -1;
+                last = i;
+            }
+        }
+        return first > 0 && last < token.length - 1 ? last : -1;
+    }
+
+    /**
+     * Index of the {@code '.'} ending the header, or -1 for a legacy token without one.
+     */
+    public static int headerSeparator(byte[] token, int separator) {
+        for (int i = 0; i < separator; i++)
+            if (token[i] == '.')
+                return i;
+        return -1;
+    }
+
+    public static byte[] writeHeader(Header h) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(48);
+        try (JsonGenerator g = JSON.createGenerator(out)) {
+            g.writeStartObject();
+            g.writeStringField("alg", h.alg());
+            if (h.kid() != null)
+                g.writeStringField("kid", h.kid());
+            g.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    public static Header readHeader(byte[] buf, int off, int len) throws IOException {
+        String alg = null, kid = null;
+        try (JsonParser p = JSON.createParser(buf, off, len)) {
+            if (p.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("Header is not a JSON object");
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken t = p.nextToken();
+                switch (field) {
+                    case "alg" -> alg = text(p, t);
+                    case "kid" -> kid = text(p, t);
+                    default -> p.skipChildren();
+                }
+            }
+        }
+        if (alg == null)
+            throw new IOException("Header has no alg");
+        return new Header(alg, kid);
+    }
+
+    /**
+     * Whether payloads of {@code version} use the binary layout; dates of such payloads keep whole seconds only.
+     */
+    public static boolean isBinary(String version) {
+        return version != null && version.startsWith("3.");
+    }
+
+    /**
+     * Writes the payload as JSON, or in the binary layout if its version {@link #isBinary is binary}.
+     */
+    public static byte[] writePayload(LicensePayload p) throws IOException {
+        if (isBinary(p.version()))
+            return writeBinaryPayload(p);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator g = JSON.createGenerator(out)) {
+            g.writeStartObject();
+            g.writeStringField("version", p.version());
+            g.writeStringField("customer_id", p.customerId());
+            g.writeStringField("issue_date", p.issueDate().toString());
+            g.writeStringField("expiry_date", p.expiryDate().toString());
+            g.writeStringField("uuid", p.uuid());
+            g.writeStringField("hw_fingerprint", p.hwFingerprint());
+            g.writeFieldName("metadata");
+            writeValue(g, p.metadata());
+            g.writeFieldName("usage_limit");
+            if (p.usageLimit() != null)
+                g.writeNumber(p.usageLimit());
+            else
+                g.writeNull();
+            g.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    public static LicensePayload readPayload(byte[] buf, int off, int len) throws IOException {
+        if (len > 0 && buf[off] == BINARY_MAGIC)
+            return readBinaryPayload(buf, off, len);
+        String version = null, customerId = null, uuid = null, hw = null;
+        Instant issue = null, expiry = null;
+        Map<String, Object> metadata = null;
+        Integer usageLimit = null;
+        try (JsonParser p = JSON.createParser(buf, off, len)) {
+            if (p.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("Payload is not a JSON object");
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken t = p.nextToken();
+                switch (field) {
+                    case "version" -> version = text(p, t);
+                    case "customer_id" -> customerId = text(p, t);
+                    case "issue_date" -> issue = instant(p, t);
+                    case "expiry_date" -> expiry = instant(p, t);
+                    case "uuid" -> uuid = text(p, t);
+                    case "hw_fingerprint" -> hw = text(p, t);
+                    case "usage_limit" -> usageLimit = t == JsonToken.VALUE_NULL ? null : p.getIntValue();
+                    case "metadata" -> {
+                        Object v = readValue(p, t);
+                        if (v instanceof Map<?, ?>) {
+                            @SuppressWarnings("unchecked")
+                            Map<String, Object> m = (Map<String, Object>) v;
+                            metadata = m;
+                        }
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+        }
+        return new LicensePayload(version, customerId, issue, expiry, uuid, hw, metadata, usageLimit);
+    }
+
+    private static byte[] writeBinaryPayload(LicensePayload p) throws IOException {
+        if (p.issueDate() == null || p.expiryDate() == null)
+            throw new IOException("Binary payload requires issue and expiry dates");
+        UUID uuid = canonicalUuid(p.uuid());
+        byte[] hw = p.hwFingerprint() != null ? sha256Bytes(p.hwFingerprint()) : null;
+        byte[] metadata = null;
+        if (!p.metadata().isEmpty()) {
+            ByteArrayOutputStream m = new ByteArrayOutputStream(64);
+            try (JsonGenerator g = JSON.createGenerator(m)) {
+                writeValue(g, p.metadata());
+            }
+            metadata = m.toByteArray();
+        }
+        int flags = (uuid != null ? UUID_BYTES : 0)
+                | (p.hwFingerprint() != null ? HW : 0)
+                | (hw != null ? HW_BYTES : 0)
+                | (p.usageLimit() != null ? USAGE_LIMIT : 0)
+                | (metadata != null ? METADATA : 0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(BINARY_MAGIC);
+        out.writeByte(flags);
+        writeString(out, p.version());
+        out.writeLong(p.issueDate().getEpochSecond());
+        out.writeLong(p.expiryDate().getEpochSecond());
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            writeString(out, p.uuid());
+        }
+        writeString(out, p.customerId());
+        if (hw != null)
+            out.write(hw);
+        else if (p.hwFingerprint() != null)
+            writeString(out, p.hwFingerprint());
+        if (p.usageLimit() != null)
+            out.writeInt(p.usageLimit());
+        if (metadata != null)
+            writeBytes(out, metadata);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static LicensePayload readBinaryPayload(byte[] buf, int off, int len) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(buf, off, len);
+        try {
+            in.get();
+            int flags = in.get();
+            String version = readString(in);
+            Instant issue = Instant.ofEpochSecond(in.getLong());
+            Instant expiry = Instant.ofEpochSecond(in.getLong());
+            String uuid = (flags & UUID_BYTES) != 0 ? new UUID(in.getLong(), in.getLong()).toString() : readString(in);
+            String customerId = readString(in);
+            String hw = null;
+            if ((flags & HW_BYTES) != 0) {
+                char[] hex = new char[64];
+                for (int i = 0; i < 32; i++) {
+                    int b = in.get();
+                    hex[i * 2] = HEX[(b >> 4) & 0xF];
+                    hex[i * 2 + 1] = HEX[b & 0xF];
+                }
+                hw = new String(hex);
+            } else if ((flags & HW) != 0) {
+                hw = readString(in);
+            }
+            Integer usageLimit = (flags & USAGE_LIMIT) != 0 ? in.getInt() : null;
+            Map<String, Object> metadata = null;
+            if ((flags & METADATA) != 0) {
+                int n = readLength(in);
+                try (JsonParser p = JSON.createParser(buf, in.position(), n)) {
+                    if (readValue(p, p.nextToken()) instanceof Map<?, ?> m) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> map = (Map<String, Object>) m;
+                        metadata = map;
+                    }
+                }
+                in.position(in.position() + n);
+            }
+            return new LicensePayload(version, customerId, issue, expiry, uuid, hw, metadata, usageLimit);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated binary payload", e);
+        }
+    }
+
+    /**
+     * {@code s} as a UUID if it is in canonical (lowercase, hyphenated) form, otherwise null.
+     */
+    static UUID canonicalUuid(String s) {
+        if (s == null || s.length() != 36)
+            return null;
+        try {
+            UUID u = UUID.fromString(s);
+            return u.toString().equals(s) ? u : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] sha256Bytes(String s) {
+        if (s.length() != 64)
+            return null;
+        byte[] b = new byte[32];
+        for (int i = 0; i < 64; i++) {
+            char c = s.charAt(i);
+            int d = c >= '0' && c <= '9' ? c - '0' : c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
+            if (d < 0)
+                return null;
+            b[i / 2] |= (byte) (i % 2 == 0 ? d << 4 : d);
+        }
+        return b;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null)
+            out.writeByte(0);
+        else
+            writeBytes(out, s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] b) throws IOException {
+        // varint of length + 1, so that 0 can stand for null
+        for (long v = b.length + 1L; ; v >>>= 7) {
+            if (v < 0x80) {
+                out.writeByte((int) v);
+                break;
+            }
+            out.writeByte((int) (v & 0x7F) | 0x80);
+        }
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int n = readLength(in);
+        if (n < 0)
+            return null;
+        String s = new String(in.array(), in.position(), n, StandardCharsets.UTF_8);
+        in.position(in.position() + n);
+        return s;
+    }
+
+    /**
+     * Length of the following bytes, or -1 for null.
+     */
+    private static int readLength(ByteBuffer in) throws IOException {
+        int v = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift > 28)
+                throw new IOException("Malformed length in binary payload");
+            int b = in.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0)
+                break;
+        }
+        if (v < 0 || v - 1 > in.remaining())
+            throw new IOException("Truncated binary payload");
+        return v - 1;
+    }
+
+    private static String text(JsonParser p, JsonToken t) throws IOException {
+        return t == JsonToken.VALUE_NULL ? null : p.getText();
+    }
+
+    private static Instant instant(JsonParser p, JsonToken t) throws IOException {
+        return t == JsonToken.VALUE_NULL ? null : Instant.parse(p.getText());
+    }
+
+    static Object readValue(JsonParser p, JsonToken t) throws IOException {
+        switch (t) {
+            case START_OBJECT -> {
+                Map<String, Object> m = new LinkedHashMap<>();
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = p.currentName();
+                    m.put(name, readValue(p, p.nextToken()));
+                }
+                return m;
+            }
+            case START_ARRAY -> {
+                List<Object> l = new ArrayList<>();
+                for (JsonToken e = p.nextToken(); e != JsonToken.END_ARRAY; e = p.nextToken())
+                    l.add(readValue(p, e));
+                return l;
+            }
+            case VALUE_STRING -> {
+                return p.getText();
+            }
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
+                return p.getNumberValue();
+            }
+            case VALUE_TRUE -> {
+                return Boolean.TRUE;
+            }
+            case VALUE_FALSE -> {
+                return Boolean.FALSE;
+            }
+            case VALUE_NULL -> {
+                return null;
+            }
+            default -> throw new IOException("Unexpected token " + t);
+        }
+    }
+
+    static void writeValue(JsonGenerator g, Object v) throws IOException {
+        if (v == null) {
+            g.writeNull();
+        } else if (v instanceof Map<?, ?> m) {
+            g.writeStartObject();
+            for (Map.Entry<?, ?> e : m.entrySet()) {
+                g.writeFieldName(String.valueOf(e.getKey()));
+                writeValue(g, e.getValue());
+            }
+            g.writeEndObject();
+        } else if (v instanceof Collection<?> c) {
+            g.writeStartArray();
+            for (Object e : c)
+                writeValue(g, e);
+            g.writeEndArray();
+        } else if (v instanceof String s) {
+            g.writeString(s);
+        } else if (v instanceof Boolean b) {
+            g.writeBoolean(b);
+        } else if (v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte) {
+            g.writeNumber(((Number) v).longValue());
+        } else if (v instanceof java.math.BigInteger b) {
+            g.writeNumber(b);
+        } else if (v instanceof java.math.BigDecimal b) {
+            g.writeNumber(b);
+        } else if (v instanceof Number n) {
+            g.writeNumber(n.doubleValue());
+        } else {
+            g.writeString(v.toString());
+        }
+    }
+}
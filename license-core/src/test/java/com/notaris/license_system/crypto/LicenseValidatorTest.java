@@ -0,0 +1,95 @@
+package com.notaris.license_system.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LicenseValidatorTest {
+    private static final byte[] AES_KEY = new byte[32];
+
+    private final KeyPair current = generate();
+    private final KeyPair retired = generate();
+
+    private static KeyPair generate() {
+        try {
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String token(KeyPair keys, String kid) {
+        return new LicenseGenerator(keys.getPrivate(), kid, AES_KEY, StageTimer.NONE)
+                .generate("customer-1", 30, null, Map.of("seats", 2), 10, "3.0");
+    }
+
+    private LicenseValidator validator(Set<String> revoked) {
+        return new LicenseValidator(List.of(current.getPublic(), retired.getPublic()), AES_KEY, revoked::contains,
+                StageTimer.NONE);
+    }
+
+    @Test
+    void validatesBinaryTokensSignedWithCurrentOrRetiredKey() {
+        LicenseValidator validator = validator(Set.of());
+
+        var result = validator.validate(token(current, LicenseKeys.keyId(current.getPublic())), null);
+        assertThat(result.outcome()).isEqualTo(LicenseValidator.Outcome.VALID);
+        assertThat(result.data()).containsEntry("customer_id", "customer-1").containsEntry("usage_limit", 10);
+
+        assertThat(validator.validate(token(retired, LicenseKeys.keyId(retired.getPublic())), null).outcome())
+                .isEqualTo(LicenseValidator.Outcome.VALID);
+    }
+
+    @Test
+    void rejectsUnknownOrMismatchedKid() {
+        LicenseValidator validator = validator(Set.of());
+
+        assertThat(validator.validate(token(current, "no-such-key"), null).outcome())
+                .isEqualTo(LicenseValidator.Outcome.BAD_SIGNATURE);
+        // signed with the current key but naming the retired one
+        assertThat(validator.validate(token(current, LicenseKeys.keyId(retired.getPublic())), null).outcome())
+                .isEqualTo(LicenseValidator.Outcome.BAD_SIGNATURE);
+        // no kid falls back to the current key only
+        assertThat(validator.validate(token(retired, null), null).outcome())
+                .isEqualTo(LicenseValidator.Outcome.BAD_SIGNATURE);
+        assertThat(validator.validate(token(current, null), null).outcome())
+                .isEqualTo(LicenseValidator.Outcome.VALID);
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String token = token(current, LicenseKeys.keyId(current.getPublic()));
+        String[] parts = token.split("\\.");
+        byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+        payload[payload.length - 1] ^= 1;
+        String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + "."
+                + parts[2];
+
+        assertThat(validator(Set.of()).validate(tampered, null).outcome())
+                .isEqualTo(LicenseValidator.Outcome.BAD_SIGNATURE);
+        // two parts read as a legacy payload.signature token
+        assertThat(validator(Set.of()).validate(parts[0] + "." + parts[1], null).outcome())
+                .isEqualTo(LicenseValidator.Outcome.BAD_SIGNATURE);
+        assertThat(validator(Set.of()).validate(parts[1], null).outcome())
+                .isEqualTo(LicenseValidator.Outcome.MALFORMED);
+    }
+
+    @Test
+    void reportsRevokedAndHardwareMismatch() throws Exception {
+        String token = token(current, LicenseKeys.keyId(current.getPublic()));
+        String uuid = validator(Set.of()).decode(token).uuid();
+
+        assertThat(validator(Set.of(uuid)).validate(token, null).outcome())
+                .isEqualTo(LicenseValidator.Outcome.REVOKED);
+        assertThat(validator(Set.of()).validate(token, "some-hw").outcome())
+                .isEqualTo(LicenseValidator.Outcome.HW_MISMATCH);
+    }
+}
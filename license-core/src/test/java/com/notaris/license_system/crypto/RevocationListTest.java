@@ -0,0 +1,108 @@
+package com.notaris.license_system.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RevocationListTest {
+    private final RevocationList list = new RevocationList();
+    private KeyPair keys;
+
+    private RevocationSnapshot snapshot(boolean delta, long from, long to, List<String> uuids) throws Exception {
+        if (keys == null)
+            keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        byte[] data = RevocationSnapshot.write(delta, from, to, Instant.now(), uuids, keys.getPrivate(),
+                LicenseKeys.keyId(keys.getPublic()));
+        return RevocationSnapshot.read(data, List.of(keys.getPublic()));
+    }
+
+    @Test
+    void startsEmpty() {
+        assertThat(list.sequence()).isZero();
+        assertThat(list.size()).isZero();
+        assertThat(list.isRevoked(UUID.randomUUID().toString())).isFalse();
+    }
+
+    @Test
+    void appliesFullThenDeltas() throws Exception {
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        String c = UUID.randomUUID().toString();
+
+        list.apply(snapshot(false, 0, 10, List.of(a, "legacy-1")));
+        list.apply(snapshot(true, 10, 12, List.of(b, a)));
+        list.apply(snapshot(true, 12, 13, List.of("legacy-2")));
+
+        assertThat(list.sequence()).isEqualTo(13);
+        assertThat(list.size()).isEqualTo(4);
+        assertThat(list.isRevoked(a)).isTrue();
+        assertThat(list.isRevoked(b)).isTrue();
+        assertThat(list.isRevoked("legacy-1")).isTrue();
+        assertThat(list.isRevoked("legacy-2")).isTrue();
+        assertThat(list.isRevoked(c)).isFalse();
+    }
+
+    @Test
+    void fullSnapshotReplacesPreviousState() throws Exception {
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        list.apply(snapshot(false, 0, 5, List.of(a, "legacy-1")));
+
+        list.apply(snapshot(false, 0, 8, List.of(b)));
+
+        assertThat(list.sequence()).isEqualTo(8);
+        assertThat(list.isRevoked(a)).isFalse();
+        assertThat(list.isRevoked("legacy-1")).isFalse();
+        assertThat(list.isRevoked(b)).isTrue();
+    }
+
+    @Test
+    void rejectsOutOfSequenceDelta() throws Exception {
+        String a = UUID.randomUUID().toString();
+        list.apply(snapshot(false, 0, 10, List.of(a)));
+
+        assertThatThrownBy(() -> list.apply(snapshot(true, 11, 12, List.of(UUID.randomUUID().toString()))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("does not apply to sequence 10");
+        assertThatThrownBy(() -> list.apply(snapshot(true, 9, 12, List.of())))
+                .isInstanceOf(IllegalStateException.class);
+
+        // the failed deltas left the list untouched
+        assertThat(list.sequence()).isEqualTo(10);
+        assertThat(list.size()).isEqualTo(1);
+        assertThat(list.isRevoked(a)).isTrue();
+    }
+
+    @Test
+    void matchesNonCanonicalUuidsExactly() throws Exception {
+        String lower = UUID.randomUUID().toString();
+        String upper = UUID.randomUUID().toString().toUpperCase();
+        list.apply(snapshot(false, 0, 1, List.of(lower, upper)));
+
+        assertThat(list.isRevoked(upper)).isTrue();
+        assertThat(list.isRevoked(upper.toLowerCase())).isFalse();
+        assertThat(list.isRevoked(lower)).isTrue();
+        assertThat(list.isRevoked(lower.toUpperCase())).isFalse();
+    }
+
+    @Test
+    void growsPastInitialTable() throws Exception {
+        List<String> uuids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++)
+            uuids.add(UUID.randomUUID().toString());
+        list.apply(snapshot(false, 0, 1, uuids.subList(0, 500)));
+        list.apply(snapshot(true, 1, 2, uuids.subList(500, 1_000)));
+
+        assertThat(list.size()).isEqualTo(1_000);
+        assertThat(uuids).allMatch(list::isRevoked);
+        assertThat(list.isRevoked(UUID.randomUUID().toString())).isFalse();
+    }
+}
@@ -0,0 +1,157 @@
+package com.notaris.license_system.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SignatureException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RevocationSnapshotTest {
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    // "LRV1" + alg "EdDSA" + kid, both as modified UTF-8 with a 2-byte length
+    private static final int KIND_OFFSET = 4 + 2 + 5;
+
+    private final KeyPair keys = generate();
+    private final String kid = LicenseKeys.keyId(keys.getPublic());
+
+    private static KeyPair generate() {
+        try {
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] write(boolean delta, long from, long to, List<String> uuids) throws Exception {
+        return RevocationSnapshot.write(delta, from, to, NOW, uuids, keys.getPrivate(), kid);
+    }
+
+    // offset of the packed-uuid count n
+    private int countOffset() {
+        return KIND_OFFSET + 2 + kid.length() + 1 + 8 + 8 + 8;
+    }
+
+    @Test
+    void roundTripsFullSnapshot() throws Exception {
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+
+        RevocationSnapshot s = RevocationSnapshot.read(write(false, 99, 7, List.of(a, b, "legacy-42")),
+                List.of(keys.getPublic()));
+
+        assertThat(s.isDelta()).isFalse();
+        assertThat(s.fromSequence()).isZero();
+        assertThat(s.toSequence()).isEqualTo(7);
+        assertThat(s.issuedAt()).isEqualTo(NOW);
+        assertThat(s.size()).isEqualTo(3);
+        assertThat(s.others()).containsExactly("legacy-42");
+    }
+
+    @Test
+    void roundTripsDelta() throws Exception {
+        RevocationSnapshot s = RevocationSnapshot.read(write(true, 7, 9, List.of(UUID.randomUUID().toString())),
+                List.of(keys.getPublic()));
+
+        assertThat(s.isDelta()).isTrue();
+        assertThat(s.fromSequence()).isEqualTo(7);
+        assertThat(s.toSequence()).isEqualTo(9);
+        assertThat(s.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsNonCanonicalUuidsAsStrings() throws Exception {
+        String upper = UUID.randomUUID().toString().toUpperCase();
+        String zeroHigh = new UUID(0, 42).toString();
+
+        RevocationSnapshot s = RevocationSnapshot.read(write(false, 0, 1, List.of(upper, zeroHigh)),
+                List.of(keys.getPublic()));
+
+        assertThat(s.bits()).isEmpty();
+        assertThat(s.others()).containsExactly(upper, zeroHigh);
+    }
+
+    @Test
+    void rejectsWrongMagic() throws Exception {
+        byte[] data = write(false, 0, 1, List.of());
+        data[3] = '2';
+
+        assertThatThrownBy(() -> RevocationSnapshot.read(data, List.of(keys.getPublic())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Not a revocation snapshot");
+    }
+
+    @Test
+    void rejectsCorruptCounts() throws Exception {
+        byte[] data = write(false, 0, 1, List.of(UUID.randomUUID().toString()));
+        ByteBuffer.wrap(data).putInt(countOffset(), Integer.MAX_VALUE);
+        assertThatThrownBy(() -> RevocationSnapshot.read(data, List.of(keys.getPublic())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Corrupt");
+
+        byte[] negative = write(false, 0, 1, List.of(UUID.randomUUID().toString()));
+        ByteBuffer.wrap(negative).putInt(countOffset(), -1);
+        assertThatThrownBy(() -> RevocationSnapshot.read(negative, List.of(keys.getPublic())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Corrupt");
+
+        // m sits right after the single packed uuid
+        byte[] others = write(false, 0, 1, List.of(UUID.randomUUID().toString()));
+        ByteBuffer.wrap(others).putInt(countOffset() + 4 + 16, Integer.MAX_VALUE);
+        assertThatThrownBy(() -> RevocationSnapshot.read(others, List.of(keys.getPublic())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Corrupt");
+    }
+
+    @Test
+    void rejectsTruncatedData() throws Exception {
+        byte[] data = write(false, 0, 1, List.of(UUID.randomUUID().toString()));
+
+        for (int length : new int[] { 0, 3, countOffset() + 2, countOffset() + 12, data.length - 1 }) {
+            byte[] cut = Arrays.copyOf(data, length);
+            assertThatThrownBy(() -> RevocationSnapshot.read(cut, List.of(keys.getPublic())))
+                    .as("length %d", length)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void rejectsTamperedBody() throws Exception {
+        byte[] data = write(false, 0, 1, List.of(UUID.randomUUID().toString()));
+        data[countOffset() + 4] ^= 1;
+
+        assertThatThrownBy(() -> RevocationSnapshot.read(data, List.of(keys.getPublic())))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void rejectsUnknownOrWrongKey() throws Exception {
+        byte[] data = write(false, 0, 1, List.of(UUID.randomUUID().toString()));
+        KeyPair other = generate();
+
+        assertThatThrownBy(() -> RevocationSnapshot.read(data, List.of(other.getPublic())))
+                .isInstanceOf(SignatureException.class);
+
+        // signed by the other key but labelled with ours
+        byte[] forged = RevocationSnapshot.write(false, 0, 1, NOW, List.of(), other.getPrivate(), kid);
+        assertThatThrownBy(() -> RevocationSnapshot.read(forged, List.of(keys.getPublic(), other.getPublic())))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void acceptsAnyMatchingKeyWhenKidIsEmpty() throws Exception {
+        byte[] data = RevocationSnapshot.write(false, 0, 3, NOW, List.of(), keys.getPrivate(), null);
+
+        RevocationSnapshot s = RevocationSnapshot.read(data, List.of(generate().getPublic(), keys.getPublic()));
+
+        assertThat(s.toSequence()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,142 @@
+package com.notaris.license_system.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenCodecTest {
+    private static final Instant ISSUED = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant EXPIRES = Instant.parse("2027-01-01T00:00:00Z");
+    private static final String FINGERPRINT = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private static LicensePayload payload(String uuid, String hw, Map<String, Object> metadata, Integer usageLimit) {
+        return new LicensePayload("3.0", "customer-1", ISSUED, EXPIRES, uuid, hw, metadata, usageLimit);
+    }
+
+    private static LicensePayload read(byte[] b) throws IOException {
+        return TokenCodec.readPayload(b, 0, b.length);
+    }
+
+    @Test
+    void binaryRoundTripWithPackedFields() throws Exception {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("seats", 5);
+        metadata.put("features", List.of("export", "sso"));
+        LicensePayload p = payload(UUID.randomUUID().toString(), FINGERPRINT, metadata, 100);
+
+        byte[] b = TokenCodec.writePayload(p);
+
+        assertThat(b[0]).isEqualTo((byte) 0xB3);
+        LicensePayload back = read(b);
+        assertThat(back).usingRecursiveComparison().ignoringFields("metadata").isEqualTo(p);
+        assertThat(back.metadata()).containsEntry("features", List.of("export", "sso"));
+        assertThat(((Number) back.metadata().get("seats")).intValue()).isEqualTo(5);
+    }
+
+    @Test
+    void binaryRoundTripWithUnpackedAndMissingFields() throws Exception {
+        LicensePayload noOptional = payload(UUID.randomUUID().toString(), null, null, null);
+        assertThat(read(TokenCodec.writePayload(noOptional))).isEqualTo(noOptional);
+
+        // upper-case uuid and a fingerprint that is not 64 hex digits are carried as strings, unchanged
+        LicensePayload strings = payload(UUID.randomUUID().toString().toUpperCase(), "HW-1", null, 0);
+        assertThat(read(TokenCodec.writePayload(strings))).isEqualTo(strings);
+
+        LicensePayload longText = new LicensePayload("3.1", "c".repeat(300), ISSUED, EXPIRES, "legacy-42",
+                FINGERPRINT.toUpperCase(), Map.of("note", "é".repeat(200)), null);
+        assertThat(read(TokenCodec.writePayload(longText))).isEqualTo(longText);
+    }
+
+    @Test
+    void readsWithinOffsetAndLength() throws Exception {
+        LicensePayload p = payload(UUID.randomUUID().toString(), null, null, 3);
+        byte[] b = TokenCodec.writePayload(p);
+        byte[] padded = new byte[b.length + 10];
+        System.arraycopy(b, 0, padded, 4, b.length);
+
+        assertThat(TokenCodec.readPayload(padded, 4, b.length)).isEqualTo(p);
+    }
+
+    @Test
+    void rejectsTruncatedBinaryPayload() throws Exception {
+        byte[] b = TokenCodec.writePayload(payload(UUID.randomUUID().toString(), FINGERPRINT, Map.of("k", "v"), 7));
+
+        for (int length = 1; length < b.length; length++) {
+            byte[] cut = Arrays.copyOf(b, length);
+            assertThatThrownBy(() -> read(cut)).as("length %d", length).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void rejectsLengthPastEndOfPayload() throws Exception {
+        byte[] b = TokenCodec.writePayload(payload(UUID.randomUUID().toString(), null, null, null));
+        // version "3.0" is written as length 3 + 1 right after magic and flags
+        assertThat(b[2]).isEqualTo((byte) 4);
+
+        b[2] = 0x7F;
+        assertThatThrownBy(() -> read(b)).isInstanceOf(IOException.class).hasMessageContaining("Truncated");
+    }
+
+    @Test
+    void rejectsOverlongVarint() throws Exception {
+        byte[] b = TokenCodec.writePayload(payload(UUID.randomUUID().toString(), null, null, null));
+        byte[] bad = new byte[b.length + 8];
+        System.arraycopy(b, 0, bad, 0, 2);
+        Arrays.fill(bad, 2, 8, (byte) 0xFF);
+
+        assertThatThrownBy(() -> read(bad)).isInstanceOf(IOException.class).hasMessageContaining("Malformed");
+    }
+
+    @Test
+    void rejectsUnknownFormatByte() throws Exception {
+        byte[] b = TokenCodec.writePayload(payload(UUID.randomUUID().toString(), null, null, null));
+        b[0] = (byte) 0xB4;
+
+        assertThatThrownBy(() -> read(b)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void versionSelectsFormat() throws Exception {
+        LicensePayload json = new LicensePayload("2.0", "customer-1", ISSUED, EXPIRES, UUID.randomUUID().toString(),
+                null, Map.of("k", "v"), 1);
+
+        byte[] b = TokenCodec.writePayload(json);
+
+        assertThat(b[0]).isEqualTo((byte) '{');
+        assertThat(read(b)).isEqualTo(json);
+        assertThatThrownBy(() -> TokenCodec.writePayload(
+                new LicensePayload("3.0", "c", null, EXPIRES, "u", null, null, null)))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void headerRoundTrip() throws Exception {
+        byte[] b = TokenCodec.writeHeader(new TokenCodec.Header("EdDSA", "kid-1"));
+        assertThat(TokenCodec.readHeader(b, 0, b.length)).isEqualTo(new TokenCodec.Header("EdDSA", "kid-1"));
+
+        byte[] noKid = TokenCodec.writeHeader(new TokenCodec.Header("ES512", null));
+        assertThat(TokenCodec.readHeader(noKid, 0, noKid.length)).isEqualTo(new TokenCodec.Header("ES512", null));
+
+        byte[] noAlg = "{\"kid\":\"x\"}".getBytes();
+        assertThatThrownBy(() -> TokenCodec.readHeader(noAlg, 0, noAlg.length)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void canonicalUuidIsStrict() {
+        String u = UUID.randomUUID().toString();
+
+        assertThat(TokenCodec.canonicalUuid(u)).isEqualTo(UUID.fromString(u));
+        assertThat(TokenCodec.canonicalUuid(u.toUpperCase())).isNull();
+        assertThat(TokenCodec.canonicalUuid("1-2-3-4-5")).isNull();
+        assertThat(TokenCodec.canonicalUuid(null)).isNull();
+    }
+}
@@ -0,0 +1,120 @@
+package com.notaris.license_system.bench;
+
+import com.notaris.license_system.crypto.LicenseGenerator;
+import com.notaris.license_system.crypto.LicensePayload;
+import com.notaris.license_system.crypto.LicenseSystem;
+import com.notaris.license_system.crypto.LicenseValidator;
+import com.notaris.license_system.crypto.SignatureAlgorithm;
+import com.notaris.license_system.crypto.StageTimer;
+import com.notaris.license_system.crypto.TokenCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation and validation without persistence, for each signature algorithm and for the JSON (2.0) and
+ * binary (3.0) payload formats. {@code parsePayload} isolates the payload decoding and reports the token and payload
+ * sizes as secondary results ({@link Sizes}). See {@link CryptoBenchmarkMT} for the multi-threaded run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoBenchmark {
+    private static final Map<String, Object> METADATA = Map.of("plan", "pro", "seats", 25);
+    private static final String HW = LicenseValidator.hardwareFingerprint();
+
+    @Param({ "ES512", "ES256", "ED25519" })
+    SignatureAlgorithm algorithm;
+
+    @Param({ "2.0", "3.0" })
+    String version;
+
+    LicenseGenerator generator;
+    LicenseGenerator aesGenerator;
+    LicenseValidator validator;
+    LicenseValidator revokingValidator;
+    String valid;
+    String expired;
+    String tampered;
+    byte[] payload;
+
+    @Setup
+    public void setup() {
+        KeyPair kp = LicenseSystem.generateKeyPair(algorithm);
+        PrivateKey priv = kp.getPrivate();
+        PublicKey pub = kp.getPublic();
+        String kid = LicenseSystem.keyId(pub);
+        byte[] aes = LicenseSystem.generateAesKey();
+        generator = new LicenseGenerator(priv, kid, null, StageTimer.NONE);
+        aesGenerator = new LicenseGenerator(priv, kid, aes, StageTimer.NONE);
+        validator = new LicenseValidator(List.of(pub), null, uuid -> false, StageTimer.NONE);
+        revokingValidator = new LicenseValidator(List.of(pub), null, uuid -> true, StageTimer.NONE);
+        valid = generator.generate("bench", 30, HW, METADATA, 100, version);
+        expired = generator.generate("bench", -1, HW, METADATA, 100, version);
+        char[] chars = valid.toCharArray();
+        int i = valid.lastIndexOf('.') - 5;
+        chars[i] = chars[i] == 'A' ? 'B' : 'A';
+        tampered = new String(chars);
+        int from = valid.indexOf('.') + 1;
+        payload = Base64.getUrlDecoder().decode(valid.substring(from, valid.lastIndexOf('.')));
+    }
+
+    /** Length of the valid token and its decoded payload; multi-threaded runs report the sum over threads. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+        public long tokenChars;
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void setup(CryptoBenchmark benchmark) {
+            tokenChars = benchmark.valid.length();
+            payloadBytes = benchmark.payload.length;
+        }
+    }
+
+    @Benchmark
+    public LicensePayload parsePayload(Sizes sizes) throws IOException {
+        return TokenCodec.readPayload(payload, 0, payload.length);
+    }
+
+    @Benchmark
+    public String generate() {
+        return generator.generate("bench", 30, HW, METADATA, 100, version);
+    }
+
+    @Benchmark
+    public String generateAes() {
+        return aesGenerator.generate("bench", 30, HW, METADATA, 100, version);
+    }
+
+    @Benchmark
+    public LicenseValidator.ValidationResult validateValid() {
+        return validator.validate(valid, HW);
+    }
+
+    @Benchmark
+    public LicenseValidator.ValidationResult validateExpired() {
+        return validator.validate(expired, HW);
+    }
+
+    @Benchmark
+    public LicenseValidator.ValidationResult validateRevoked() {
+        return revokingValidator.validate(valid, HW);
+    }
+
+    @Benchmark
+    public LicenseValidator.ValidationResult validateTampered() {
+        return validator.validate(tampered, HW);
+    }
+}
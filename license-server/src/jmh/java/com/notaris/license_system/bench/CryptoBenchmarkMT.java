@@ -0,0 +1,7 @@
+package com.notaris.license_system.bench;
+
+import org.openjdk.jmh.annotations.Threads;
+
+@Threads(Threads.MAX)
+public class CryptoBenchmarkMT extends CryptoBenchmark {
+}
@@ -0,0 +1,53 @@
+package com.notaris.license_system.bench;
+
+import com.notaris.license_system.crypto.LicenseSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PEM parsing cost that every request paid before keys were cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyLoadingBenchmark {
+    Path dir;
+    Path priv;
+    Path pub;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("bench-keys");
+        priv = dir.resolve("private.pem");
+        pub = dir.resolve("public.pem");
+        KeyPair kp = LicenseSystem.generateKeyPair();
+        LicenseSystem.savePrivate(kp.getPrivate(), priv);
+        LicenseSystem.savePublic(kp.getPublic(), pub);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(priv);
+        Files.deleteIfExists(pub);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public PublicKey loadPublic() {
+        return LicenseSystem.loadPublic(pub);
+    }
+
+    @Benchmark
+    public PrivateKey loadPrivate() {
+        return LicenseSystem.loadPrivate(priv);
+    }
+}
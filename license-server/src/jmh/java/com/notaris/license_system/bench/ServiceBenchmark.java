@@ -0,0 +1,73 @@
+package com.notaris.license_system.bench;
+
+import com.notaris.license_system.LicenseSystemApplication;
+import com.notaris.license_system.crypto.LicenseValidator;
+import com.notaris.license_system.service.LicenseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuance and validation through {@link LicenseService}, against a fresh SQLite file. See {@link ServiceBenchmarkMT}
+ * for the concurrent run, which is where the group-commit writer matters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final Map<String, Object> METADATA = Map.of("plan", "pro");
+
+    @Param({ "true", "false" })
+    boolean validationCache;
+
+    Path dir;
+    ConfigurableApplicationContext ctx;
+    LicenseService service;
+    String license;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("bench-service");
+        ctx = new SpringApplicationBuilder(LicenseSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:sqlite:" + dir.resolve("licenses.db")
+                                + "?journal_mode=WAL&synchronous=FULL&busy_timeout=5000",
+                        "app.keys.private=" + dir.resolve("private.pem"),
+                        "app.keys.public=" + dir.resolve("public.pem"),
+                        "app.keys.aes=" + dir.resolve("aes.key"),
+                        "app.keys.retired-dir=" + dir.resolve("retired-keys"),
+                        "app.validation-cache.enabled=" + validationCache,
+                        "logging.level.root=WARN")
+                .run();
+        service = ctx.getBean(LicenseService.class);
+        service.generateKeyPair();
+        license = service.generateLicense("bench", 30, null, METADATA, 100, "2.0", false);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ctx.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public String generateLicense() {
+        return service.generateLicense("bench", 30, null, METADATA, 100, "2.0", false);
+    }
+
+    @Benchmark
+    public LicenseValidator.ValidationResult validate() {
+        return service.validate(license, null, false);
+    }
+}
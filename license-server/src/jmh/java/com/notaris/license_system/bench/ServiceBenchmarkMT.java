@@ -0,0 +1,7 @@
+package com.notaris.license_system.bench;
+
+import org.openjdk.jmh.annotations.Threads;
+
+@Threads(16)
+public class ServiceBenchmarkMT extends ServiceBenchmark {
+}
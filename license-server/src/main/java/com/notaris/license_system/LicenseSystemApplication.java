@@ -0,0 +1,36 @@
+package com.notaris.license_system;
+
+import com.notaris.license_system.config.ImportRunner;
+import com.notaris.license_system.config.NativeHints;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Arrays;
+
+@SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(NativeHints.class)
+public class LicenseSystemApplication {
+
+	public static void main(String[] args) {
+		SpringApplication app = new SpringApplication(LicenseSystemApplication.class);
+		// command-line import (see ImportRunner): no web server, exit once the import is done
+		boolean importing = Arrays.stream(args).anyMatch(a -> a.startsWith("--" + ImportRunner.OPTION + "="));
+		if (importing && AotDetector.useGeneratedArtifacts()) {
+			// the AOT bean graph was frozen for the web server; run the import from the plain JVM build
+			throw new IllegalStateException("--" + ImportRunner.OPTION
+					+ " is not available in the AOT/native build; run it with the regular jar");
+		}
+		if (importing)
+			app.setWebApplicationType(WebApplicationType.NONE);
+		ConfigurableApplicationContext ctx = app.run(args);
+		if (importing)
+			System.exit(SpringApplication.exit(ctx));
+	}
+
+}
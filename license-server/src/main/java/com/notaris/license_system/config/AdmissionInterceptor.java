@@ -0,0 +1,55 @@
+package com.notaris.license_system.config;
+
+import com.notaris.license_system.service.AdmissionControl;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies {@link AdmissionControl} to API requests before the body is read or any handler runs. Rejected requests
+ * get 429 with {@code Retry-After}. For streamed responses the permit is held until the async dispatch completes.
+ */
+class AdmissionInterceptor implements HandlerInterceptor {
+    private static final String PERMIT = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionControl admission;
+
+    AdmissionInterceptor(AdmissionControl admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ASYNC)
+            return true;
+        String key = request.getHeader("X-API-KEY");
+        AdmissionControl.Limiter limiter = admission.limiter(key != null ? key : request.getParameter("api_key"));
+        if (limiter == null)
+            return true;
+        long retryAfter = limiter.tryAcquire();
+        if (retryAfter > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests\"}");
+            return false;
+        }
+        request.setAttribute(PERMIT, limiter);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        // not called for the dispatch that starts async processing, only once the async dispatch completes
+        if (request.getAttribute(PERMIT) instanceof AdmissionControl.Limiter limiter) {
+            request.removeAttribute(PERMIT);
+            limiter.release();
+        }
+    }
+}
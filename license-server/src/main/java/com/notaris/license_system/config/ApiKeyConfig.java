@@ -3,7 +3,10 @@ package com.notaris.license_system.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -22,4 +25,17 @@ public class ApiKeyConfig {
     public boolean isAuthorized(String apiKey) {
         return apiKey != null && whitelist.contains(apiKey);
     }
+
+    /**
+     * Stable, non-reversible identifier for an API key (first 8 hex chars of its SHA-256), safe to use in logs and
+     * metric tags.
+     */
+    public static String keyId(String apiKey) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(d, 0, 4);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.notaris.license_system.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.notaris.license_system.controller.ApiMessages;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the {@link ApiMessages} bodies as JSON, CBOR ({@code application/cbor}) or Smile
+ * ({@code application/x-jackson-smile}), chosen by {@code Content-Type} for requests and {@code Accept} for
+ * responses; JSON is the default. Readers and writers are built once per type and format at start-up, from copies of
+ * the application's {@link ObjectMapper} so all formats share its configuration. Other types are left to the regular
+ * converters.
+ */
+@Component
+public class ApiMessageConverter extends AbstractHttpMessageConverter<Object> {
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    private static final List<Class<?>> TYPES = List.of(
+            ApiMessages.ValidateBody.class,
+            ApiMessages.ValidateBody[].class,
+            ApiMessages.ValidateResponse.class,
+            ApiMessages.ValidateItem[].class,
+            ApiMessages.CreateBody.class,
+            ApiMessages.CreateBody[].class,
+            ApiMessages.CreateResponse.class,
+            ApiMessages.CreateResult.class,
+            ApiMessages.ApiError.class);
+
+    private final List<Codec> codecs;
+
+    /**
+     * Precomputed readers and writers for one wire format.
+     */
+    public static final class Codec {
+        private final MediaType mediaType;
+        private final JsonFactory factory;
+        private final Map<Class<?>, ObjectReader> readers = new HashMap<>();
+        private final Map<Class<?>, ObjectWriter> writers = new HashMap<>();
+
+        Codec(MediaType mediaType, ObjectMapper mapper) {
+            this.mediaType = mediaType;
+            this.factory = mapper.getFactory();
+            for (Class<?> type : TYPES) {
+                readers.put(type, mapper.readerFor(type));
+                // a root type would pin the element serializer to the interface; let elements use their own
+                ObjectWriter writer = type.isArray() && type.getComponentType().isInterface()
+                        ? mapper.writer()
+                        : mapper.writerFor(type);
+                // callers streaming several values flush themselves
+                writers.put(type, writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+            }
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public JsonFactory factory() {
+            return factory;
+        }
+
+        public ObjectWriter writer(Class<?> type) {
+            return writers.get(type);
+        }
+    }
+
+    public ApiMessageConverter(ObjectMapper mapper) {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+        this.codecs = List.of(
+                new Codec(MediaType.APPLICATION_JSON, mapper),
+                new Codec(MediaType.APPLICATION_CBOR, mapper.copyWith(new CBORFactory())),
+                new Codec(APPLICATION_SMILE, mapper.copyWith(new SmileFactory())));
+    }
+
+    /**
+     * The codec for the first of {@code accept} that one of the formats satisfies, or JSON.
+     */
+    public Codec negotiate(List<MediaType> accept) {
+        for (MediaType m : accept)
+            for (Codec c : codecs)
+                if (m.isCompatibleWith(c.mediaType()))
+                    return c;
+        return codecs.get(0);
+    }
+
+    private Codec codec(MediaType contentType) {
+        if (contentType != null)
+            for (Codec c : codecs)
+                if (c.mediaType().includes(contentType))
+                    return c;
+        return codecs.get(0);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TYPES.contains(clazz);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage input) throws IOException {
+        try {
+            return codec(input.getHeaders().getContentType()).readers.get(clazz).readValue(input.getBody());
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("Malformed request body: " + e.getOriginalMessage(), e,
+                    input);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage output) throws IOException {
+        try {
+            ObjectWriter writer = codec(output.getHeaders().getContentType()).writer(value.getClass());
+            writer.writeValue(StreamUtils.nonClosing(output.getBody()), value);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write " + value.getClass().getSimpleName(), e);
+        }
+    }
+}
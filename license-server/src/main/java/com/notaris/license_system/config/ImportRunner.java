@@ -0,0 +1,58 @@
+package com.notaris.license_system.config;
+
+import com.notaris.license_system.model.ImportJob;
+import com.notaris.license_system.service.LicenseImporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command-line import: {@code --import=<file.ndjson[.gz]> [--import.job=<name>]}. The job name defaults to the file
+ * name, so re-running the same command after a failure resumes the import. The application exits when the import
+ * ends, with status 1 if it failed.
+ */
+@Component
+public class ImportRunner implements ApplicationRunner, ExitCodeGenerator {
+    public static final String OPTION = "import";
+    private static final Logger log = LoggerFactory.getLogger(ImportRunner.class);
+
+    private final LicenseImporter importer;
+    private int exitCode;
+
+    public ImportRunner(LicenseImporter importer) {
+        this.importer = importer;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> files = args.getOptionValues(OPTION);
+        if (files == null || files.isEmpty())
+            return;
+        Path file = Path.of(files.get(0));
+        List<String> names = args.getOptionValues(OPTION + ".job");
+        String job = names != null && !names.isEmpty() ? names.get(0) : file.getFileName().toString();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+                InputStream in = file.toString().endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw) {
+            ImportJob result = importer.run(job, in);
+            log.info("Import {}: {} ({} records)", job, result.getStatus(), result.getCommittedRecords());
+        } catch (Exception e) {
+            log.error("Import {} from {} failed; run the same command again to resume", job, file, e);
+            exitCode = 1;
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
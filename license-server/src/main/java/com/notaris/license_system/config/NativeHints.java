@@ -0,0 +1,61 @@
+package com.notaris.license_system.config;
+
+import com.notaris.license_system.controller.ApiMessages;
+import com.notaris.license_system.model.CustomerStats;
+import com.notaris.license_system.repo.LicenseSummary;
+import com.notaris.license_system.service.LicensePage;
+import com.notaris.license_system.service.LicenseStats;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Reachability hints for the AOT and native builds ({@code -Paot}, {@code -Pnative}) covering what Spring cannot infer
+ * from the bean definitions: bodies bound through {@code Map} or returned as {@code ResponseEntity<?>}, objects that
+ * Thymeleaf reads reflectively, the BouncyCastle classes that {@code LicenseSystem}'s provider registration loads by
+ * name, the JDBC driver and dialect named in {@code application.properties}, and the templates. sqlite-jdbc ships its
+ * own native-image feature for the native library.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+    // the provider itself plus the EC services LicenseSystem asks "BC" for; other algorithms come from the JDK
+    private static final List<String> BOUNCY_CASTLE = List.of(
+            "org.bouncycastle.jce.provider.BouncyCastleProvider",
+            "org.bouncycastle.jcajce.provider.asymmetric.EC$Mappings",
+            "org.bouncycastle.jcajce.provider.asymmetric.ec.KeyPairGeneratorSpi$EC",
+            "org.bouncycastle.jcajce.provider.asymmetric.ec.KeyFactorySpi$EC");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                ApiMessages.ValidateBody.class,
+                ApiMessages.ValidateResponse.class,
+                ApiMessages.CreateBody.class,
+                ApiMessages.CreateResponse.class,
+                ApiMessages.CreateResult.class,
+                ApiMessages.ApiError.class,
+                LicenseStats.Totals.class);
+        for (Class<?> type : List.of(LinkedHashMap.class, HashMap.class, ArrayList.class))
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        for (Class<?> type : List.of(LicenseSummary.class, LicensePage.class, CustomerStats.class,
+                LicenseStats.Totals.class))
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        for (String type : BOUNCY_CASTLE)
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        hints.reflection().registerType(TypeReference.of("org.sqlite.JDBC"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(TypeReference.of("org.hibernate.community.dialect.SQLiteDialect"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        hints.resources().registerPattern("templates/*.html");
+    }
+}
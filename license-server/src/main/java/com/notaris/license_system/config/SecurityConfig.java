@@ -1,8 +1,11 @@
 package com.notaris.license_system.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.core.userdetails.*;
@@ -11,6 +14,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 
 @Configuration
+// absent when running a command-line import (see ImportRunner), which starts no web server
+@ConditionalOnWebApplication
 public class SecurityConfig {
 
     @Value("${app.admin.username:admin}")
@@ -19,7 +24,20 @@ public class SecurityConfig {
     @Value("${app.admin.password:changeMe123}")
     private String adminPassword;
 
+    // metrics scrapers and export scripts authenticate with HTTP Basic; a logged-in session works here too
     @Bean
+    @Order(1)
+    public SecurityFilterChain basicAuthFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/actuator/**", "/licenses/export")
+            .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
+            .httpBasic(Customizer.withDefaults())
+            .csrf(c -> c.disable());
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
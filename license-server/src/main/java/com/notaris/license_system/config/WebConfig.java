@@ -1,6 +1,8 @@
 package com.notaris.license_system.config;
 
+import com.notaris.license_system.service.AdmissionControl;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -8,9 +10,17 @@ import org.springframework.web.servlet.ModelAndView;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.util.List;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    private final AdmissionControl admission;
+    private final ApiMessageConverter apiConverter;
+
+    public WebConfig(AdmissionControl admission, ApiMessageConverter apiConverter) {
+        this.admission = admission;
+        this.apiConverter = apiConverter;
+    }
 
     private final HandlerInterceptor navInterceptor = new HandlerInterceptor() {
         @Override
@@ -25,5 +35,12 @@ public class WebConfig implements WebMvcConfigurer {
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(navInterceptor);
+        registry.addInterceptor(new AdmissionInterceptor(admission)).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // ahead of the default Jackson converter, which would otherwise take the JSON requests
+        converters.add(0, apiConverter);
     }
 }
\ No newline at end of file
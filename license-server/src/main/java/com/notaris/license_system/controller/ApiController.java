@@ -0,0 +1,286 @@
+package com.notaris.license_system.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.notaris.license_system.config.ApiKeyConfig;
+import com.notaris.license_system.config.ApiMessageConverter;
+import com.notaris.license_system.crypto.LicenseValidator;
+import com.notaris.license_system.model.ImportJob;
+import com.notaris.license_system.service.IssueRequest;
+import com.notaris.license_system.service.LicenseImporter;
+import com.notaris.license_system.service.LicenseMetrics;
+import com.notaris.license_system.service.LicenseService;
+import com.notaris.license_system.service.RevocationFeed;
+import com.notaris.license_system.service.ValidateRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class ApiController {
+    private final LicenseService service;
+    private final ApiKeyConfig apiKeyConfig;
+    private final LicenseMetrics metrics;
+    private final LicenseImporter importer;
+    private final RevocationFeed revocationFeed;
+    private final ApiMessageConverter apiConverter;
+    private final int batchMaxItems;
+    private final int batchChunkSize;
+
+    public ApiController(LicenseService service, ApiKeyConfig apiKeyConfig, LicenseMetrics metrics,
+            LicenseImporter importer, RevocationFeed revocationFeed, ApiMessageConverter apiConverter,
+            @Value("${app.batch.max-items:10000}") int batchMaxItems,
+            @Value("${app.batch.chunk-size:500}") int batchChunkSize) {
+        this.service = service;
+        this.apiKeyConfig = apiKeyConfig;
+        this.metrics = metrics;
+        this.importer = importer;
+        this.revocationFeed = revocationFeed;
+        this.apiConverter = apiConverter;
+        this.batchMaxItems = batchMaxItems;
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    private boolean auth(String key) {
+        return apiKeyConfig.isAuthorized(key);
+    }
+
+    @PostMapping("/validate")
+    public ResponseEntity<?> validate(@RequestBody ApiMessages.ValidateBody body, HttpServletRequest request) {
+        try {
+            if (body.licenseKey() == null)
+                return ResponseEntity.badRequest().body(new ApiMessages.ApiError("license_key is required"));
+            LicenseValidator.ValidationResult res = service.validate(body.licenseKey(), body.hwFingerprint(),
+                    body.useAes(), true, request.getRemoteAddr());
+            return ResponseEntity.ok(ApiMessages.ValidateResponse.of(res));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiMessages.ApiError(String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Accepts an array of {@code /validate} bodies and returns one result per item, in order, in the same shape as
+     * {@code /validate}. Items without a {@code license_key} get an {@code error} entry instead.
+     */
+    @PostMapping("/validate/batch")
+    public ResponseEntity<?> validateBatch(@RequestBody ApiMessages.ValidateBody[] body,
+            HttpServletRequest request) {
+        if (body.length > batchMaxItems)
+            return ResponseEntity.badRequest()
+                    .body(new ApiMessages.ApiError("batch exceeds " + batchMaxItems + " items"));
+        List<ValidateRequest> requests = new ArrayList<>(body.length);
+        for (ApiMessages.ValidateBody item : body)
+            if (item.licenseKey() != null)
+                requests.add(item.toRequest());
+        Iterator<LicenseValidator.ValidationResult> validated = service
+                .validateAll(requests, true, request.getRemoteAddr()).iterator();
+        ApiMessages.ValidateItem[] results = new ApiMessages.ValidateItem[body.length];
+        for (int i = 0; i < body.length; i++)
+            results[i] = body[i].licenseKey() == null
+                    ? new ApiMessages.ApiError("license_key is required")
+                    : ApiMessages.ValidateResponse.of(validated.next());
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/create")
+    public ResponseEntity<?> create(@RequestHeader(value = "X-API-KEY", required = false) String key,
+            @RequestParam(value = "api_key", required = false) String keyParam,
+            @RequestBody ApiMessages.CreateBody body) {
+        String apiKey = key != null ? key : keyParam;
+        if (!auth(apiKey))
+            return ResponseEntity.status(403).body(new ApiMessages.ApiError("Unauthorized"));
+        try {
+            IssueRequest req = body.toRequest();
+            String lic = service.generateLicense(req.customerId(), req.daysValid(), req.hwFingerprint(),
+                    req.metadata(), req.usageLimit(), req.version(), req.useAes());
+            metrics.issued(ApiKeyConfig.keyId(apiKey), 1);
+            return ResponseEntity.ok(new ApiMessages.CreateResponse(lic));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiMessages.ApiError(String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Accepts an array of {@code /create} bodies. Items are processed in chunks so large batches start streaming
+     * results back before the whole batch is signed; each result carries the item's index and either
+     * {@code license_key} or {@code error}. The response is written in the format asked for by {@code Accept}.
+     */
+    @PostMapping("/create/batch")
+    public ResponseEntity<StreamingResponseBody> createBatch(
+            @RequestHeader(value = "X-API-KEY", required = false) String key,
+            @RequestParam(value = "api_key", required = false) String keyParam,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestBody ApiMessages.CreateBody[] body) {
+        ApiMessageConverter.Codec codec = apiConverter.negotiate(acceptedTypes(accept));
+        String apiKey = key != null ? key : keyParam;
+        if (!auth(apiKey))
+            return error(codec, HttpStatus.FORBIDDEN, "Unauthorized");
+        String keyId = ApiKeyConfig.keyId(apiKey);
+        if (body.length > batchMaxItems)
+            return error(codec, HttpStatus.BAD_REQUEST, "batch exceeds " + batchMaxItems + " items");
+        ObjectWriter writer = codec.writer(ApiMessages.CreateResult.class);
+        List<ApiMessages.CreateBody> items = Arrays.asList(body);
+        StreamingResponseBody stream = out -> {
+            try (JsonGenerator gen = codec.factory().createGenerator(out)) {
+                gen.writeStartArray();
+                for (int from = 0; from < items.size(); from += batchChunkSize) {
+                    List<ApiMessages.CreateBody> chunk = items.subList(from,
+                            Math.min(from + batchChunkSize, items.size()));
+                    writeChunk(gen, writer, from, chunk, keyId);
+                    gen.flush();
+                }
+                gen.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(codec.mediaType()).body(stream);
+    }
+
+    // Spring only streams a StreamingResponseBody when the declared type says so, so errors are streamed too
+    private static ResponseEntity<StreamingResponseBody> error(ApiMessageConverter.Codec codec, HttpStatus status,
+            String message) {
+        ObjectWriter writer = codec.writer(ApiMessages.ApiError.class);
+        ApiMessages.ApiError error = new ApiMessages.ApiError(message);
+        return ResponseEntity.status(status).contentType(codec.mediaType())
+                .body(out -> writer.writeValue(StreamUtils.nonClosing(out), error));
+    }
+
+    private static List<MediaType> acceptedTypes(String accept) {
+        try {
+            return accept != null ? MediaType.parseMediaTypes(accept) : List.of();
+        } catch (InvalidMediaTypeException e) {
+            return List.of();
+        }
+    }
+
+    private void writeChunk(JsonGenerator gen, ObjectWriter writer, int offset, List<ApiMessages.CreateBody> chunk,
+            String keyId) throws IOException {
+        String[] parseErrors = new String[chunk.size()];
+        List<IssueRequest> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                valid.add(chunk.get(i).toRequest());
+            } catch (Exception e) {
+                parseErrors[i] = String.valueOf(e.getMessage());
+            }
+        }
+        List<LicenseService.IssueResult> results = service.generateLicenses(valid);
+        metrics.issued(keyId, (int) results.stream().filter(r -> r.licenseKey() != null).count());
+        Iterator<LicenseService.IssueResult> issued = results.iterator();
+        for (int i = 0; i < chunk.size(); i++) {
+            ApiMessages.CreateResult item;
+            if (parseErrors[i] != null) {
+                item = new ApiMessages.CreateResult(offset + i, null, parseErrors[i]);
+            } else {
+                LicenseService.IssueResult r = issued.next();
+                item = new ApiMessages.CreateResult(offset + i, r.licenseKey(),
+                        r.licenseKey() != null ? null : r.error());
+            }
+            writer.writeValue(gen, item);
+        }
+    }
+
+    @PostMapping("/revoke")
+    public ResponseEntity<?> revoke(@RequestHeader(value = "X-API-KEY", required = false) String key,
+            @RequestParam(value = "api_key", required = false) String keyParam,
+            @RequestBody Map<String, Object> body) {
+        if (!auth(key != null ? key : keyParam))
+            return ResponseEntity.status(403).body(Map.of("error", "Unauthorized"));
+        String uuid = (String) body.get("uuid");
+        if (uuid == null)
+            return ResponseEntity.badRequest().body(Map.of("error", "uuid is required"));
+        boolean created = service.revoke(uuid);
+        return ResponseEntity.ok(Map.of("revoked", true, "already_revoked", !created));
+    }
+
+    /**
+     * Signed binary list of revoked uuids for offline validators (see {@code RevocationSnapshot}/
+     * {@code RevocationList} in license-core). With {@code since} set to the client's sequence only newer revocations
+     * are returned; the ETag is the current sequence, so an unchanged list costs a 304.
+     */
+    @GetMapping("/revocations")
+    public ResponseEntity<?> revocations(@RequestParam(value = "since", required = false) Long since,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            String etag = "\"" + revocationFeed.sequence() + "\"";
+            if (etag.equals(ifNoneMatch))
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            RevocationFeed.Snapshot snapshot = revocationFeed.snapshot(since);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .eTag("\"" + snapshot.sequence() + "\"")
+                    .header("X-Revocation-Sequence", String.valueOf(snapshot.sequence()))
+                    .header("X-Revocation-Delta", String.valueOf(snapshot.delta()))
+                    .body(snapshot.body());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Streams an NDJSON body of licenses and revocations (see {@link LicenseImporter}) into the database. Posting the
+     * same body again under the same {@code job} resumes after the last committed chunk. The body may be gzipped
+     * ({@code Content-Encoding: gzip}).
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importLicenses(@RequestHeader(value = "X-API-KEY", required = false) String key,
+            @RequestParam(value = "api_key", required = false) String keyParam,
+            @RequestHeader(value = "Content-Encoding", required = false) String encoding,
+            @RequestParam("job") String job,
+            InputStream body) {
+        if (!auth(key != null ? key : keyParam))
+            return ResponseEntity.status(403).body(Map.of("error", "Unauthorized"));
+        try (InputStream in = "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(body, 1 << 16) : body) {
+            return ResponseEntity.ok(importSummary(importer.run(job, in)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            Map<String, Object> r = importer.job(job).map(ApiController::importSummary).orElseGet(LinkedHashMap::new);
+            r.put("error", String.valueOf(e.getMessage()));
+            return ResponseEntity.badRequest().body(r);
+        }
+    }
+
+    @GetMapping("/import/{job}")
+    public ResponseEntity<?> importStatus(@RequestHeader(value = "X-API-KEY", required = false) String key,
+            @RequestParam(value = "api_key", required = false) String keyParam,
+            @PathVariable String job) {
+        if (!auth(key != null ? key : keyParam))
+            return ResponseEntity.status(403).body(Map.of("error", "Unauthorized"));
+        return importer.job(job).<ResponseEntity<?>>map(j -> ResponseEntity.ok(importSummary(j)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static Map<String, Object> importSummary(ImportJob job) {
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("job", job.getName());
+        r.put("status", job.getStatus().name());
+        r.put("committed_records", job.getCommittedRecords());
+        r.put("licenses", job.getLicenses());
+        r.put("revocations", job.getRevocations());
+        r.put("started_at", job.getStartedAt().toString());
+        r.put("updated_at", job.getUpdatedAt().toString());
+        if (job.getError() != null)
+            r.put("error", job.getError());
+        return r;
+    }
+}
@@ -0,0 +1,72 @@
+package com.notaris.license_system.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.notaris.license_system.crypto.LicenseValidator;
+import com.notaris.license_system.service.IssueRequest;
+import com.notaris.license_system.service.ValidateRequest;
+
+import java.util.Map;
+
+/**
+ * Request and response bodies of the {@code /api} validate and create endpoints, read and written in JSON, CBOR or
+ * Smile by {@link com.notaris.license_system.config.ApiMessageConverter}. Unknown fields are ignored.
+ */
+public final class ApiMessages {
+    private ApiMessages() {
+    }
+
+    public record ValidateBody(@JsonProperty("license_key") String licenseKey,
+            @JsonProperty("hw_fingerprint") String hwFingerprint,
+            @JsonProperty("use_aes") boolean useAes) {
+
+        ValidateRequest toRequest() {
+            return new ValidateRequest(licenseKey, hwFingerprint, useAes);
+        }
+    }
+
+    /**
+     * An item of the {@code /validate/batch} response: a result, or an error for an item without a license key.
+     */
+    public sealed interface ValidateItem permits ValidateResponse, ApiError {
+    }
+
+    public record ValidateResponse(boolean valid,
+            boolean revoked,
+            @JsonProperty("license_data") Map<String, Object> licenseData) implements ValidateItem {
+
+        static ValidateResponse of(LicenseValidator.ValidationResult r) {
+            return new ValidateResponse(r.valid(), r.revoked(), r.data());
+        }
+    }
+
+    public record CreateBody(@JsonProperty("customer_id") String customerId,
+            @JsonProperty("days_valid") Integer daysValid,
+            @JsonProperty("hw_fingerprint") String hwFingerprint,
+            Map<String, Object> metadata,
+            @JsonProperty("usage_limit") Integer usageLimit,
+            String version,
+            @JsonProperty("use_aes") boolean useAes) {
+
+        IssueRequest toRequest() {
+            if (customerId == null)
+                throw new IllegalArgumentException("customer_id is required");
+            return new IssueRequest(customerId, daysValid != null ? daysValid : 30, hwFingerprint, metadata,
+                    usageLimit, version != null ? version : "2.0", useAes);
+        }
+    }
+
+    public record CreateResponse(@JsonProperty("license_key") String licenseKey) {
+    }
+
+    /**
+     * An item of the streamed {@code /create/batch} response; exactly one of {@code licenseKey} and {@code error} is
+     * set.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record CreateResult(int index, @JsonProperty("license_key") String licenseKey, String error) {
+    }
+
+    public record ApiError(String error) implements ValidateItem {
+    }
+}
@@ -0,0 +1,64 @@
+package com.notaris.license_system.controller;
+
+import com.notaris.license_system.service.AuditLog;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/audit?uuid=&from=&to=&limit=}: validation audit records, newest first. {@code from} (inclusive) and
+ * {@code to} (exclusive) are ISO-8601 instants.
+ */
+@Component
+@Endpoint(id = "audit")
+public class AuditLogEndpoint {
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+
+    private final AuditLog auditLog;
+
+    public AuditLogEndpoint(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> scan(@Nullable String uuid, @Nullable String from, @Nullable String to,
+            @Nullable Integer limit) throws IOException {
+        int n = limit != null ? Math.min(Math.max(limit, 0), MAX_LIMIT) : DEFAULT_LIMIT;
+        List<AuditLog.Entry> entries = auditLog.scan(uuid, instant("from", from), instant("to", to), n);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("count", entries.size());
+        body.put("entries", entries.stream().map(AuditLogEndpoint::toMap).toList());
+        return body;
+    }
+
+    private static Map<String, Object> toMap(AuditLog.Entry e) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("timestamp", e.timestamp().toString());
+        m.put("uuid", e.uuid());
+        m.put("outcome", e.outcome());
+        m.put(e.hwHashed() ? "hw_fingerprint_sha256" : "hw_fingerprint", e.hwFingerprint());
+        m.put("caller", e.caller());
+        return m;
+    }
+
+    private static Instant instant(String name, String value) {
+        if (value == null)
+            return null;
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidEndpointRequestException(name + " is not an ISO-8601 instant",
+                    "invalid " + name);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.notaris.license_system.controller;
+
+import com.notaris.license_system.service.AuditLog;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code auditLog} component of {@code /actuator/health}: {@code DOWN} while the audit writer cannot write or has
+ * stopped, so a broken audit trail shows up in monitoring rather than only in {@code license.audit.dropped}.
+ */
+@Component
+public class AuditLogHealthIndicator implements HealthIndicator {
+    private final AuditLog auditLog;
+
+    public AuditLogHealthIndicator(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public Health health() {
+        if (!auditLog.isEnabled())
+            return Health.unknown().withDetail("enabled", false).build();
+        AuditLog.Failure failure = auditLog.failure();
+        if (failure != null)
+            return Health.down().withDetail("error", failure.error()).withDetail("since", failure.since()).build();
+        if (!auditLog.isRunning())
+            return Health.down().withDetail("error", "writer stopped").build();
+        return Health.up().build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.notaris.license_system.controller;
+
+import com.notaris.license_system.model.CustomerStats;
+import com.notaris.license_system.model.IssuanceDay;
+import com.notaris.license_system.service.LicenseStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/licensestats}: license counts overall and per customer, and issuance per day.
+ */
+@Component
+@Endpoint(id = "licensestats")
+public class LicenseStatsEndpoint {
+    private final LicenseStats stats;
+
+    public LicenseStatsEndpoint(LicenseStats stats) {
+        this.stats = stats;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        LicenseStats.Snapshot s = stats.snapshot();
+        Map<String, Object> customers = new LinkedHashMap<>();
+        for (CustomerStats c : s.customers())
+            customers.put(c.getCustomerId(), Map.of("total", c.getTotal(), "valid", c.getValid(),
+                    "expired", c.getExpired(), "revoked", c.getRevoked()));
+        Map<String, Long> issued = new LinkedHashMap<>();
+        for (IssuanceDay d : s.issuance())
+            issued.put(LocalDate.ofEpochDay(d.getEpochDay()).toString(), d.getIssued());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("totals", s.totals());
+        body.put("customers", customers);
+        body.put("issued_per_day", issued);
+        return body;
+    }
+}
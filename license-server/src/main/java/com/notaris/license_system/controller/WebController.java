@@ -1,32 +1,56 @@
 package com.notaris.license_system.controller;
 
-import com.notaris.license_system.model.GeneratedLicense;
-import com.notaris.license_system.repo.RevokedLicenseRepository;
+import com.notaris.license_system.model.CustomerStats;
+import com.notaris.license_system.service.LicenseExporter;
+import com.notaris.license_system.service.LicensePage;
 import com.notaris.license_system.service.LicenseService;
+import com.notaris.license_system.service.LicenseStats;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @Validated
 public class WebController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int HOME_TOP_CUSTOMERS = 10;
+
     private final LicenseService service;
-    private final RevokedLicenseRepository revokedRepo;
+    private final LicenseExporter exporter;
+    private final LicenseStats stats;
+    private final int defaultPageSize;
 
-    public WebController(LicenseService service, RevokedLicenseRepository revokedRepo) {
+    public WebController(LicenseService service, LicenseExporter exporter, LicenseStats stats,
+            @Value("${app.licenses.page-size:5}") int defaultPageSize) {
         this.service = service;
-        this.revokedRepo = revokedRepo;
+        this.exporter = exporter;
+        this.stats = stats;
+        this.defaultPageSize = defaultPageSize;
     }
 
     @GetMapping("/")
-    public String home() {
+    public String home(Model model) {
+        LicenseStats.Snapshot snapshot = stats.snapshot();
+        model.addAttribute("totals", snapshot.totals());
+        model.addAttribute("topCustomers", snapshot.customers().stream()
+                .sorted(Comparator.comparingLong(CustomerStats::getTotal).reversed())
+                .limit(HOME_TOP_CUSTOMERS)
+                .toList());
+        model.addAttribute("issuance", snapshot.issuance().stream()
+                .map(d -> Map.of("date", LocalDate.ofEpochDay(d.getEpochDay()).toString(), "issued", d.getIssued()))
+                .toList());
         return "home";
     }
 
@@ -124,6 +148,7 @@ public class WebController {
     private void populateKeys(Model model, String msg) {
         model.addAttribute("privExists", service.privateExists());
         model.addAttribute("pubExists", service.publicExists());
+        model.addAttribute("keyAlgorithm", service.keyAlgorithm());
         model.addAttribute("aesExists", service.aesExists());
         model.addAttribute("privKey", service.readPrivate());
         model.addAttribute("pubKey", service.readPublic());
@@ -149,46 +174,52 @@ public class WebController {
             @RequestParam(value = "q", required = false) String q,
             @RequestParam(value = "status", required = false) String status,
             @RequestParam(value = "customer", required = false) String customer,
-            @RequestParam(value = "page", defaultValue = "0") int page) {
-        List<GeneratedLicense> all = service.listAll();
-        // search
-        if (q != null && !q.isBlank()) {
-            String ql = q.toLowerCase();
-            all = all.stream()
-                    .filter(gl -> (gl.getCustomerId() != null && gl.getCustomerId().toLowerCase().contains(ql)) ||
-                            (gl.getUuid() != null && gl.getUuid().toLowerCase().contains(ql)) ||
-                            (gl.getHwFingerprint() != null && gl.getHwFingerprint().toLowerCase().contains(ql)))
-                    .collect(Collectors.toList());
-        }
-        if (customer != null && !customer.isBlank()) {
-            String cl = customer.toLowerCase();
-            all = all.stream().filter(gl -> gl.getCustomerId() != null && gl.getCustomerId().toLowerCase().contains(cl))
-                    .collect(Collectors.toList());
-        }
-        Instant now = Instant.now();
-        record Row(GeneratedLicense gl, String status) {
-        }
-        List<Row> rows = new ArrayList<>();
-        for (GeneratedLicense gl : all) {
-            boolean revoked = revokedRepo.existsByUuid(gl.getUuid());
-            boolean expired = now.isAfter(gl.getExpiryDate());
-            String st = revoked ? "Revoked" : expired ? "Expired" : "Valid";
-            rows.add(new Row(gl, st));
-        }
-        if (status != null && !status.isBlank()) {
-            String sl = status.toLowerCase();
-            rows = rows.stream().filter(r -> r.status().toLowerCase().equals(sl)).collect(Collectors.toList());
-        }
-        int pageSize = 5;
-        int from = page * pageSize;
-        int to = Math.min(from + pageSize, rows.size());
-        List<Row> slice = from >= rows.size() ? List.of() : rows.subList(from, to);
-        model.addAttribute("rows", slice);
-        model.addAttribute("page", page);
-        model.addAttribute("totalPages", (rows.size() + pageSize - 1) / pageSize);
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "archived", defaultValue = "false") boolean archived) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LicensePage page = service.listPage(q, customer, status, after, before, pageSize, archived);
+        model.addAttribute("rows", page.rows());
+        model.addAttribute("hasPrevious", page.hasPrevious());
+        model.addAttribute("hasNext", page.hasNext());
+        model.addAttribute("firstId", page.firstId());
+        model.addAttribute("lastId", page.lastId());
+        model.addAttribute("size", pageSize);
         model.addAttribute("query", q == null ? "" : q);
         model.addAttribute("statusFilter", status == null ? "" : status);
         model.addAttribute("customerFilter", customer == null ? "" : customer);
+        model.addAttribute("archived", archived);
         return "licenses_list";
     }
-}
\ No newline at end of file
+
+    /**
+     * Streams all licenses as CSV or NDJSON ({@code format=csv|ndjson}), optionally gzip-compressed on the fly.
+     * Archived licenses are included unless {@code archived=false}.
+     */
+    @GetMapping("/licenses/export")
+    public ResponseEntity<StreamingResponseBody> exportLicenses(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            @RequestParam(value = "archived", defaultValue = "true") boolean archived) {
+        LicenseExporter.Format f = "ndjson".equalsIgnoreCase(format) ? LicenseExporter.Format.NDJSON
+                : LicenseExporter.Format.CSV;
+        String filename = "licenses." + (f == LicenseExporter.Format.CSV ? "csv" : "ndjson") + (gzip ? ".gz" : "");
+        MediaType type = gzip ? MediaType.parseMediaType("application/gzip")
+                : f == LicenseExporter.Format.CSV ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                        : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream zip = new GZIPOutputStream(out, 1 << 16);
+                exporter.export(f, archived, zip);
+                zip.finish();
+            } else {
+                exporter.export(f, archived, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,104 @@
+package com.notaris.license_system.crypto;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Immutable snapshot of the loaded keys together with the generator/validator instances built on them.
+ * Any of the keys may be missing, in which case the dependent engines are {@code null}. Retired public keys are only
+ * used to validate tokens issued before the key pair was replaced.
+ */
+public final class KeyMaterial {
+    private final PrivateKey privateKey;
+    private final PublicKey publicKey;
+    private final List<PublicKey> retiredKeys;
+    private final byte[] aesKey;
+    private final LicenseGenerator generator;
+    private final LicenseGenerator aesGenerator;
+    private final LicenseValidator validator;
+    private final LicenseValidator aesValidator;
+
+    public KeyMaterial(PrivateKey privateKey, PublicKey publicKey, List<PublicKey> retiredKeys, byte[] aesKey,
+            LicenseValidator.RevocationChecker revocationChecker, StageTimer timer) {
+        this.privateKey = privateKey;
+        this.publicKey = publicKey;
+        this.retiredKeys = List.copyOf(retiredKeys);
+        this.aesKey = aesKey;
+        String keyId = publicKey != null ? LicenseSystem.keyId(publicKey) : null;
+        this.generator = privateKey != null ? new LicenseGenerator(privateKey, keyId, null, timer) : null;
+        this.aesGenerator = privateKey != null && aesKey != null
+                ? new LicenseGenerator(privateKey, keyId, aesKey, timer)
+                : generator;
+        List<PublicKey> verifying = new ArrayList<>();
+        if (publicKey != null)
+            verifying.add(publicKey);
+        verifying.addAll(this.retiredKeys);
+        this.validator = !verifying.isEmpty()
+                ? new LicenseValidator(verifying, null, revocationChecker, timer)
+                : null;
+        this.aesValidator = !verifying.isEmpty() && aesKey != null
+                ? new LicenseValidator(verifying, aesKey, revocationChecker, timer)
+                : validator;
+    }
+
+    public static KeyMaterial load(Path priv, Path pub, Path retiredDir, Path aes,
+            LicenseValidator.RevocationChecker checker, StageTimer timer) {
+        try {
+            PrivateKey privateKey = Files.exists(priv) ? LicenseSystem.loadPrivate(priv) : null;
+            PublicKey publicKey = Files.exists(pub) ? LicenseSystem.loadPublic(pub) : null;
+            List<PublicKey> retired = new ArrayList<>();
+            if (Files.isDirectory(retiredDir)) {
+                try (Stream<Path> files = Files.list(retiredDir)) {
+                    files.filter(p -> p.getFileName().toString().endsWith(".pem"))
+                            .sorted()
+                            .forEach(p -> retired.add(LicenseSystem.loadPublic(p)));
+                }
+            }
+            byte[] aesKey = Files.exists(aes) ? LicenseSystem.loadAes(aes) : null;
+            return new KeyMaterial(privateKey, publicKey, retired, aesKey, checker, timer);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public PrivateKey privateKey() {
+        return privateKey;
+    }
+
+    public PublicKey publicKey() {
+        return publicKey;
+    }
+
+    public List<PublicKey> retiredKeys() {
+        return retiredKeys;
+    }
+
+    public SignatureAlgorithm algorithm() {
+        return publicKey != null ? SignatureAlgorithm.of(publicKey) : null;
+    }
+
+    public byte[] aesKey() {
+        return aesKey;
+    }
+
+    public boolean hasAes() {
+        return aesKey != null;
+    }
+
+    public LicenseGenerator generator(boolean useAes) {
+        if (generator == null)
+            throw new IllegalStateException("Private key not available");
+        return useAes ? aesGenerator : generator;
+    }
+
+    public LicenseValidator validator(boolean useAes) {
+        if (validator == null)
+            throw new IllegalStateException("Public key not available");
+        return useAes ? aesValidator : validator;
+    }
+}
@@ -8,8 +8,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.*;
-import java.security.interfaces.ECPrivateKey;
-import java.security.interfaces.ECPublicKey;
 import java.security.spec.ECGenParameterSpec;
 import java.util.Base64;
 
@@ -19,15 +17,25 @@ public class LicenseSystem {
     }
 
     public static KeyPair generateKeyPair() {
+        return generateKeyPair(SignatureAlgorithm.ES512);
+    }
+
+    public static KeyPair generateKeyPair(SignatureAlgorithm algorithm) {
         try {
+            if (algorithm.curve() == null)
+                return KeyPairGenerator.getInstance(algorithm.jcaName()).generateKeyPair();
             KeyPairGenerator kpg = KeyPairGenerator.getInstance("EC", "BC");
-            kpg.initialize(new ECGenParameterSpec("P-521"), new SecureRandom());
+            kpg.initialize(new ECGenParameterSpec(algorithm.curve()), new SecureRandom());
             return kpg.generateKeyPair();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    public static String keyId(PublicKey key) {
+        return LicenseKeys.keyId(key);
+    }
+
     public static byte[] generateAesKey() {
         try {
             KeyGenerator kg = KeyGenerator.getInstance("AES");
@@ -39,13 +47,13 @@ public class LicenseSystem {
         }
     }
 
-    public static void savePrivate(ECPrivateKey key, Path path) throws IOException {
+    public static void savePrivate(PrivateKey key, Path path) throws IOException {
         // PKCS8 DER -> Base64 PEM
         byte[] der = key.getEncoded();
         writePem(der, "PRIVATE KEY", path);
     }
 
-    public static void savePublic(ECPublicKey key, Path path) throws IOException {
+    public static void savePublic(PublicKey key, Path path) throws IOException {
         byte[] der = key.getEncoded();
         writePem(der, "PUBLIC KEY", path);
     }
@@ -56,34 +64,15 @@ public class LicenseSystem {
         Files.writeString(path, pem);
     }
 
-    public static ECPublicKey loadPublic(Path path) {
-        try {
-            byte[] der = parsePem(Files.readString(path));
-            KeyFactory kf = KeyFactory.getInstance("EC");
-            return (ECPublicKey) kf.generatePublic(new java.security.spec.X509EncodedKeySpec(der));
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    public static PublicKey loadPublic(Path path) {
+        return LicenseKeys.loadPublic(path);
     }
 
-    public static ECPrivateKey loadPrivate(Path path) {
-        try {
-            byte[] der = parsePem(Files.readString(path));
-            KeyFactory kf = KeyFactory.getInstance("EC");
-            return (ECPrivateKey) kf.generatePrivate(new java.security.spec.PKCS8EncodedKeySpec(der));
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    public static PrivateKey loadPrivate(Path path) {
+        return LicenseKeys.loadPrivate(path);
     }
 
     public static byte[] loadAes(Path path) throws IOException {
         return Files.readAllBytes(path);
     }
-
-    private static byte[] parsePem(String pem) {
-        String body = pem.replaceAll("-----BEGIN [^-]+-----", "")
-                .replaceAll("-----END [^-]+-----", "")
-                .replaceAll("\\s", "");
-        return Base64.getDecoder().decode(body);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.notaris.license_system.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A {@link GeneratedLicense} moved out of the hot table after expiring; keeps the original id.
+ */
+@Entity
+@Getter
+@Setter
+public class ArchivedLicense {
+    @Id
+    private Long id;
+
+    @Column(unique = true, length = 64, nullable = false)
+    private String uuid;
+
+    @Column(nullable = false)
+    private String customerId;
+
+    @Column(nullable = false)
+    private Instant issueDate;
+
+    @Column(nullable = false)
+    private Instant expiryDate;
+
+    private String hwFingerprint;
+
+    @Lob
+    private String metadataJson;
+
+    private Integer usageLimit;
+
+    @Lob
+    @Column(nullable = false)
+    private String licenseKey;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
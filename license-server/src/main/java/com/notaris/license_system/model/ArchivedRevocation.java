@@ -0,0 +1,26 @@
+package com.notaris.license_system.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.Instant;
+
+/**
+ * A {@link RevokedLicense} moved out together with its archived license.
+ */
+@Entity
+@Getter
+@Setter
+public class ArchivedRevocation {
+    @Id
+    private Long id;
+
+    @Column(unique = true, length = 64, nullable = false)
+    private String uuid;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
@@ -0,0 +1,31 @@
+package com.notaris.license_system.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Per-customer license counters kept by {@code LicenseStats}. Licenses not yet expired are counted in
+ * {@link ExpiryBucket}s and move into {@link #expired} when their day has passed.
+ */
+@Entity
+@Getter
+@Setter
+public class CustomerStats {
+    @Id
+    private String customerId;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long revoked;
+
+    /** Expired and not revoked. */
+    @Column(nullable = false)
+    private long expired;
+
+    public long getValid() {
+        return total - revoked - expired;
+    }
+}
@@ -0,0 +1,29 @@
+package com.notaris.license_system.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Number of a customer's unrevoked licenses expiring on one UTC day (epoch day). Unique per customer and day; the
+ * index is created by {@code StatsSchema}.
+ */
+@Entity
+@Table(name = "license_expiry_bucket",
+        indexes = @Index(name = "idx_license_expiry_bucket_day", columnList = "expiryDay"))
+@Getter
+@Setter
+public class ExpiryBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String customerId;
+
+    @Column(nullable = false)
+    private long expiryDay;
+
+    @Column(nullable = false)
+    private long active;
+}
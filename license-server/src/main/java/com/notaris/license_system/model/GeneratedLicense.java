@@ -7,6 +7,9 @@ import lombok.Setter;
 import java.time.Instant;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_generated_license_customer_id", columnList = "customerId"),
+        @Index(name = "idx_generated_license_expiry_date", columnList = "expiryDate") })
 @Getter
 @Setter
 public class GeneratedLicense {
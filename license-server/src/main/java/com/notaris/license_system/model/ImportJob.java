@@ -0,0 +1,45 @@
+package com.notaris.license_system.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+public class ImportJob {
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.RUNNING;
+
+    /** Records of the input, counted from the start, whose chunk has been committed. */
+    @Column(nullable = false)
+    private long committedRecords;
+
+    @Column(nullable = false)
+    private long licenses;
+
+    @Column(nullable = false)
+    private long revocations;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private Instant startedAt = Instant.now();
+
+    @Column(nullable = false)
+    private Instant updatedAt = Instant.now();
+}
@@ -0,0 +1,20 @@
+package com.notaris.license_system.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Licenses issued on one UTC day (epoch day).
+ */
+@Entity
+@Table(name = "license_issuance_day")
+@Getter
+@Setter
+public class IssuanceDay {
+    @Id
+    private Long epochDay;
+
+    @Column(nullable = false)
+    private long issued;
+}
@@ -0,0 +1,24 @@
+package com.notaris.license_system.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+public class LicenseUsage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, length = 64, nullable = false)
+    private String uuid;
+
+    @Column(nullable = false)
+    private long usageCount;
+
+    @Column(nullable = false)
+    private Instant updatedAt = Instant.now();
+}
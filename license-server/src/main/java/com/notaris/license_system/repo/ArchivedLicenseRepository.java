@@ -0,0 +1,26 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.ArchivedLicense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ArchivedLicenseRepository extends JpaRepository<ArchivedLicense, Long>, ArchivedLicenseRepositoryCustom {
+    @Query("select r.uuid from ArchivedRevocation r")
+    List<String> findArchivedRevocationUuids();
+
+    /**
+     * Forward-only cursor over all archived licenses in id order; must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false") })
+    @Query("select a from ArchivedLicense a order by a.id")
+    Stream<ArchivedLicense> streamAll();
+}
@@ -0,0 +1,14 @@
+package com.notaris.license_system.repo;
+
+import java.time.Instant;
+
+public interface ArchivedLicenseRepositoryCustom {
+    record Moved(int licenses, int revocations) {
+    }
+
+    /**
+     * Moves up to {@code limit} licenses that expired before {@code cutoff}, and their revocations, into the archive
+     * tables. Must run inside a transaction.
+     */
+    Moved archiveExpired(Instant cutoff, int limit, Instant now);
+}
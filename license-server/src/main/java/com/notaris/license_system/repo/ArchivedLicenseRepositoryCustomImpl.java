@@ -0,0 +1,48 @@
+package com.notaris.license_system.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.notaris.license_system.repo.GeneratedLicenseRepositoryCustomImpl.ts;
+import static com.notaris.license_system.repo.GeneratedLicenseRepositoryCustomImpl.utc;
+
+class ArchivedLicenseRepositoryCustomImpl implements ArchivedLicenseRepositoryCustom {
+    private static final String LICENSE_COLUMNS = "id, uuid, customer_id, issue_date, expiry_date, hw_fingerprint, "
+            + "metadata_json, usage_limit, license_key, created_at";
+    // ids are plain SQLite rowids, which reuse the highest id once it is deleted; keeping the newest row of each
+    // table in place keeps ids (list cursors, the revocation sequence) strictly increasing
+    private static final String SELECT_EXPIRED = "select id from generated_license where expiry_date < ? "
+            + "and id < (select max(id) from generated_license) order by expiry_date limit ?";
+
+    private final JdbcTemplate jdbc;
+
+    ArchivedLicenseRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Moved archiveExpired(Instant cutoff, int limit, Instant now) {
+        List<Long> ids = jdbc.query(SELECT_EXPIRED, ps -> {
+            ps.setTimestamp(1, ts(cutoff), utc());
+            ps.setInt(2, limit);
+        }, (rs, n) -> rs.getLong(1));
+        if (ids.isEmpty())
+            return new Moved(0, 0);
+        // ids come from the database as longs, so inlining them is safe and avoids a bind per id
+        String in = ids.stream().map(String::valueOf).collect(Collectors.joining(",", "(", ")"));
+        String uuids = "(select uuid from generated_license where id in " + in + ")";
+        String revoked = "from revoked_license where uuid in " + uuids
+                + " and id < (select max(id) from revoked_license)";
+        int revocations = jdbc.update("insert or ignore into archived_revocation (id, uuid, revoked_at, archived_at) "
+                + "select id, uuid, revoked_at, ? " + revoked, ps -> ps.setTimestamp(1, ts(now), utc()));
+        jdbc.update("delete " + revoked);
+        int licenses = jdbc.update("insert or replace into archived_license (" + LICENSE_COLUMNS + ", archived_at) "
+                + "select " + LICENSE_COLUMNS + ", ? from generated_license where id in " + in,
+                ps -> ps.setTimestamp(1, ts(now), utc()));
+        jdbc.update("delete from generated_license where id in " + in);
+        return new Moved(licenses, revocations);
+    }
+}
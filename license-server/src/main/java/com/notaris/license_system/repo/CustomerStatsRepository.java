@@ -0,0 +1,14 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.CustomerStats;
+import com.notaris.license_system.model.IssuanceDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CustomerStatsRepository extends JpaRepository<CustomerStats, String>, CustomerStatsRepositoryCustom {
+    @Query("select d from IssuanceDay d where d.epochDay >= :from order by d.epochDay")
+    List<IssuanceDay> findIssuanceSince(@Param("from") long fromEpochDay);
+}
@@ -0,0 +1,26 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.GeneratedLicense;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Incremental maintenance of the license statistics tables. All methods must run inside a transaction.
+ */
+public interface CustomerStatsRepositoryCustom {
+    void addIssued(List<GeneratedLicense> licenses);
+
+    void addRevoked(String customerId, Instant expiryDate);
+
+    /**
+     * Moves the buckets of days before {@code today} into the customers' expired counts.
+     */
+    int rollover(long today);
+
+    /**
+     * Recomputes every table from the license tables (including the archive) and returns how many customers had
+     * drifted.
+     */
+    int reconcile(long today);
+}
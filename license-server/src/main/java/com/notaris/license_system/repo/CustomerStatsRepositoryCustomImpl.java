@@ -0,0 +1,132 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.GeneratedLicense;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+class CustomerStatsRepositoryCustomImpl implements CustomerStatsRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final String ADD_TOTAL = "insert into customer_stats (customer_id, total, revoked, expired) "
+            + "values (?, ?, 0, 0) on conflict(customer_id) do update set total = total + excluded.total";
+    private static final String ADD_BUCKET = "insert into license_expiry_bucket (customer_id, expiry_day, active) "
+            + "values (?, ?, ?) on conflict(customer_id, expiry_day) do update set active = active + excluded.active";
+    private static final String ADD_ISSUED = "insert into license_issuance_day (epoch_day, issued) values (?, ?) "
+            + "on conflict(epoch_day) do update set issued = issued + excluded.issued";
+    // instants are stored as epoch millis (see GeneratedLicenseRepositoryCustomImpl#ts)
+    private static final String ALL_LICENSES = "with l as ("
+            + "select uuid, customer_id, " + day("issue_date") + " as issue_day, "
+            + day("expiry_date") + " as expiry_day from generated_license "
+            + "union all select uuid, customer_id, " + day("issue_date") + ", "
+            + day("expiry_date") + " from archived_license) ";
+    private static final String IS_REVOKED = "(exists (select 1 from revoked_license r where r.uuid = l.uuid) "
+            + "or exists (select 1 from archived_revocation r where r.uuid = l.uuid))";
+
+    private final JdbcTemplate jdbc;
+
+    CustomerStatsRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    private record Bucket(String customerId, long day) {
+    }
+
+    @Override
+    public void addIssued(List<GeneratedLicense> licenses) {
+        Map<String, Long> totals = new HashMap<>();
+        Map<Bucket, Long> buckets = new HashMap<>();
+        Map<Long, Long> days = new HashMap<>();
+        for (GeneratedLicense gl : licenses) {
+            totals.merge(gl.getCustomerId(), 1L, Long::sum);
+            buckets.merge(new Bucket(gl.getCustomerId(), epochDay(gl.getExpiryDate())), 1L, Long::sum);
+            days.merge(epochDay(gl.getIssueDate()), 1L, Long::sum);
+        }
+        jdbc.batchUpdate(ADD_TOTAL, new ArrayList<>(totals.entrySet()), BATCH_SIZE, (ps, e) -> {
+            ps.setString(1, e.getKey());
+            ps.setLong(2, e.getValue());
+        });
+        jdbc.batchUpdate(ADD_BUCKET, new ArrayList<>(buckets.entrySet()), BATCH_SIZE, (ps, e) -> {
+            ps.setString(1, e.getKey().customerId());
+            ps.setLong(2, e.getKey().day());
+            ps.setLong(3, e.getValue());
+        });
+        jdbc.batchUpdate(ADD_ISSUED, new ArrayList<>(days.entrySet()), BATCH_SIZE, (ps, e) -> {
+            ps.setLong(1, e.getKey());
+            ps.setLong(2, e.getValue());
+        });
+    }
+
+    @Override
+    public void addRevoked(String customerId, Instant expiryDate) {
+        jdbc.update("update customer_stats set revoked = revoked + 1 where customer_id = ?", customerId);
+        int fromBucket = jdbc.update("update license_expiry_bucket set active = active - 1 "
+                + "where customer_id = ? and expiry_day = ? and active > 0", customerId, epochDay(expiryDate));
+        // its bucket was already rolled over, so the license was counted as expired
+        if (fromBucket == 0)
+            jdbc.update("update customer_stats set expired = expired - 1 where customer_id = ? and expired > 0",
+                    customerId);
+    }
+
+    @Override
+    public int rollover(long today) {
+        int customers = jdbc.update("update customer_stats set expired = expired + "
+                + "(select sum(b.active) from license_expiry_bucket b "
+                + "where b.customer_id = customer_stats.customer_id and b.expiry_day < ?) "
+                + "where customer_id in (select customer_id from license_expiry_bucket where expiry_day < ?)",
+                today, today);
+        jdbc.update("delete from license_expiry_bucket where expiry_day < ?", today);
+        return customers;
+    }
+
+    @Override
+    public int reconcile(long today) {
+        // writing first takes SQLite's write lock up front, so no other writer can slip in between read and rewrite;
+        // rolling over first means only real drift shows up in the comparison
+        rollover(today);
+        Map<String, List<Long>> before = counts();
+        jdbc.update("delete from license_expiry_bucket");
+        jdbc.update("delete from customer_stats");
+        jdbc.update("delete from license_issuance_day");
+        jdbc.update(ALL_LICENSES + "insert into customer_stats (customer_id, total, revoked, expired) "
+                + "select customer_id, count(*), sum(" + IS_REVOKED + "), "
+                + "sum(not " + IS_REVOKED + " and expiry_day < ?) from l group by customer_id", today);
+        jdbc.update(ALL_LICENSES + "insert into license_expiry_bucket (customer_id, expiry_day, active) "
+                + "select customer_id, expiry_day, count(*) from l where expiry_day >= ? and not " + IS_REVOKED
+                + " group by customer_id, expiry_day", today);
+        jdbc.update(ALL_LICENSES + "insert into license_issuance_day (epoch_day, issued) "
+                + "select issue_day, count(*) from l group by issue_day");
+        Map<String, List<Long>> after = counts();
+        int drifted = 0;
+        for (Map.Entry<String, List<Long>> e : after.entrySet())
+            if (!Objects.equals(before.remove(e.getKey()), e.getValue()))
+                drifted++;
+        return drifted + before.size();
+    }
+
+    private Map<String, List<Long>> counts() {
+        Map<String, List<Long>> counts = new HashMap<>();
+        jdbc.query("select customer_id, total, revoked, expired from customer_stats", rs -> {
+            counts.put(rs.getString(1), List.of(rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+        });
+        return counts;
+    }
+
+    static long epochDay(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), DAY_MILLIS);
+    }
+
+    /**
+     * SQL twin of {@link #epochDay}: SQLite's integer {@code /} truncates toward zero, so the remainder is normalised
+     * first to floor instants before 1970 into the same day.
+     */
+    private static String day(String column) {
+        return "((" + column + " - ((" + column + " % " + DAY_MILLIS + ") + " + DAY_MILLIS + ") % " + DAY_MILLIS
+                + ") / " + DAY_MILLIS + ")";
+    }
+}
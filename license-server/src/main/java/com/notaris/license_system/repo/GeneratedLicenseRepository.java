@@ -0,0 +1,25 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.GeneratedLicense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface GeneratedLicenseRepository extends JpaRepository<GeneratedLicense, Long>, GeneratedLicenseRepositoryCustom {
+    Optional<GeneratedLicense> findByUuid(String uuid);
+
+    /**
+     * Forward-only cursor over all licenses in id order; must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false") })
+    @Query("select g from GeneratedLicense g order by g.id")
+    Stream<GeneratedLicense> streamAll();
+}
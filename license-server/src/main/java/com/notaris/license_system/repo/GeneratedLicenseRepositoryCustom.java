@@ -0,0 +1,30 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.GeneratedLicense;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface GeneratedLicenseRepositoryCustom {
+    /**
+     * Inserts new rows with JDBC batching. Hibernate cannot batch inserts for IDENTITY ids, so this bypasses the
+     * persistence context; the entities passed in are not managed afterwards.
+     */
+    void insertAll(List<GeneratedLicense> licenses);
+
+    /**
+     * Like {@link #insertAll} but a row whose uuid already exists is overwritten instead of failing the batch. The
+     * existing row keeps its id and created_at.
+     */
+    void upsertAll(List<GeneratedLicense> licenses);
+
+    /**
+     * One keyset page of license summaries in id order: ascending from {@code after} (exclusive, null for the first
+     * page) or, when {@code before} is set, descending from it. {@code q} matches words of the customer id, uuid,
+     * fingerprint or metadata by prefix, {@code customer} words of the customer id by prefix, and {@code status} is
+     * one of Valid/Expired/Revoked; null disables a filter. With {@code includeArchived} archived licenses are
+     * merged in.
+     */
+    List<LicenseSummary> findSummaries(String q, String customer, String status, Instant now, Long after, Long before,
+            int limit, boolean includeArchived);
+}
@@ -0,0 +1,180 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.GeneratedLicense;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+class GeneratedLicenseRepositoryCustomImpl implements GeneratedLicenseRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT = "insert into generated_license "
+            + "(uuid, customer_id, issue_date, expiry_date, hw_fingerprint, metadata_json, usage_limit, license_key, created_at) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT = INSERT + " on conflict(uuid) do update set "
+            + "customer_id = excluded.customer_id, issue_date = excluded.issue_date, "
+            + "expiry_date = excluded.expiry_date, hw_fingerprint = excluded.hw_fingerprint, "
+            + "metadata_json = excluded.metadata_json, usage_limit = excluded.usage_limit, "
+            + "license_key = excluded.license_key";
+
+    private static final String REVOKED = "exists (select 1 from revoked_license r where r.uuid = g.uuid)";
+    private static final Source HOT = new Source("generated_license", LicenseSearchSchema.TABLE, REVOKED);
+    // a revocation stays in revoked_license when its row could not be moved (see ArchivedLicenseRepositoryCustomImpl)
+    private static final Source ARCHIVE = new Source("archived_license", LicenseSearchSchema.ARCHIVE_TABLE,
+            "(exists (select 1 from archived_revocation r where r.uuid = g.uuid) or " + REVOKED + ")");
+
+    private record Source(String table, String fts, String revoked) {
+    }
+
+    private final JdbcTemplate jdbc;
+
+    GeneratedLicenseRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void insertAll(List<GeneratedLicense> licenses) {
+        jdbc.batchUpdate(INSERT, licenses, BATCH_SIZE, GeneratedLicenseRepositoryCustomImpl::bind);
+    }
+
+    @Override
+    public void upsertAll(List<GeneratedLicense> licenses) {
+        jdbc.batchUpdate(UPSERT, licenses, BATCH_SIZE, GeneratedLicenseRepositoryCustomImpl::bind);
+    }
+
+    private static void bind(PreparedStatement ps, GeneratedLicense gl) throws SQLException {
+        ps.setString(1, gl.getUuid());
+        ps.setString(2, gl.getCustomerId());
+        ps.setTimestamp(3, ts(gl.getIssueDate()), utc());
+        ps.setTimestamp(4, ts(gl.getExpiryDate()), utc());
+        ps.setString(5, gl.getHwFingerprint());
+        ps.setString(6, gl.getMetadataJson());
+        if (gl.getUsageLimit() != null)
+            ps.setInt(7, gl.getUsageLimit());
+        else
+            ps.setNull(7, Types.INTEGER);
+        ps.setString(8, gl.getLicenseKey());
+        ps.setTimestamp(9, ts(gl.getCreatedAt()), utc());
+    }
+
+    @Override
+    public List<LicenseSummary> findSummaries(String q, String customer, String status, Instant now, Long after,
+            Long before, int limit, boolean includeArchived) {
+        String match = matchExpression(q, customer);
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+        if (!includeArchived) {
+            appendQuery(sql, args, HOT, match, status, now, after, before, limit);
+        } else {
+            // archived rows keep their ids, so both pages merge into one keyset page
+            sql.append("select * from (");
+            appendQuery(sql, args, HOT, match, status, now, after, before, limit);
+            sql.append(") union all select * from (");
+            appendQuery(sql, args, ARCHIVE, match, status, now, after, before, limit);
+            sql.append(") order by 1 ").append(before != null ? "desc" : "asc").append(" limit ?");
+            args.add(limit);
+        }
+        return jdbc.query(sql.toString(), ps -> {
+            for (int i = 0; i < args.size(); i++) {
+                Object a = args.get(i);
+                if (a instanceof Instant instant)
+                    ps.setTimestamp(i + 1, ts(instant), utc());
+                else
+                    ps.setObject(i + 1, a);
+            }
+        }, (rs, n) -> new LicenseSummary(rs.getLong(1), rs.getString(2), rs.getString(3), instant(rs, 4),
+                instant(rs, 5), rs.getString(6), rs.getObject(7) == null ? null : rs.getInt(7), rs.getString(8),
+                rs.getString(9)));
+    }
+
+    private static void appendQuery(StringBuilder sql, List<Object> args, Source src, String match, String status,
+            Instant now, Long after, Long before, int limit) {
+        sql.append("select g.id, g.uuid, g.customer_id, g.issue_date, g.expiry_date, g.hw_fingerprint, ")
+                .append("g.usage_limit, g.metadata_json, case when ").append(src.revoked())
+                .append(" then 'Revoked' when g.expiry_date < ? then 'Expired' else 'Valid' end as status ");
+        args.add(now);
+        // with a text filter the FTS index drives the query in rowid (= id) order, so a page stops after `limit` hits
+        String id;
+        if (match != null) {
+            id = src.fts() + ".rowid";
+            sql.append("from ").append(src.fts())
+                    .append(" join ").append(src.table()).append(" g on g.id = ").append(id)
+                    .append(" where ").append(src.fts()).append(" match ?");
+            args.add(match);
+        } else {
+            id = "g.id";
+            sql.append("from ").append(src.table()).append(" g where 1 = 1");
+        }
+        if (status != null) {
+            switch (status) {
+                case "Revoked" -> sql.append(" and ").append(src.revoked());
+                case "Expired" -> sql.append(" and g.expiry_date < ? and not ").append(src.revoked());
+                case "Valid" -> sql.append(" and g.expiry_date >= ? and not ").append(src.revoked());
+                default -> sql.append(" and 0");
+            }
+            if (!status.equals("Revoked"))
+                args.add(now);
+        }
+        if (before != null) {
+            sql.append(" and ").append(id).append(" < ? order by ").append(id).append(" desc");
+            args.add(before);
+        } else {
+            if (after != null) {
+                sql.append(" and ").append(id).append(" > ?");
+                args.add(after);
+            }
+            sql.append(" order by ").append(id).append(" asc");
+        }
+        sql.append(" limit ?");
+        args.add(limit);
+    }
+
+    /**
+     * Turns the search box and customer filter into an FTS5 query: every word becomes a quoted prefix term, all
+     * terms must match, and customer terms are restricted to the customer_id column.
+     */
+    static String matchExpression(String q, String customer) {
+        StringBuilder m = new StringBuilder();
+        appendTerms(m, q, null);
+        appendTerms(m, customer, "customer_id");
+        return m.isEmpty() ? null : m.toString();
+    }
+
+    private static void appendTerms(StringBuilder m, String text, String column) {
+        if (text == null)
+            return;
+        for (String word : text.trim().split("\\s+")) {
+            // quotes make FTS5 operators and punctuation literal; a uuid becomes a phrase of its dash-separated parts
+            String term = word.replace("\"", "");
+            if (term.isEmpty())
+                continue;
+            if (!m.isEmpty())
+                m.append(' ');
+            if (column != null)
+                m.append(column).append(" : ");
+            m.append('"').append(term).append("\"*");
+        }
+    }
+
+    private static Instant instant(ResultSet rs, int column) throws SQLException {
+        Timestamp t = rs.getTimestamp(column, utc());
+        return t == null ? null : t.toInstant();
+    }
+
+    // bound the same way Hibernate binds Instant on SQLite, so JPQL comparisons keep working
+    static Timestamp ts(Instant instant) {
+        return Timestamp.from(instant);
+    }
+
+    static Calendar utc() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+}
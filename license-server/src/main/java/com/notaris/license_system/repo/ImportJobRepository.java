@@ -0,0 +1,10 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    Optional<ImportJob> findByName(String name);
+}
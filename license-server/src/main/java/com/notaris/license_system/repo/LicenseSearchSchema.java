@@ -0,0 +1,65 @@
+package com.notaris.license_system.repo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the SQLite FTS5 indexes behind the license search. {@code license_fts} is an external-content table over
+ * {@code generated_license} (rowid = id), so it stores only the index; triggers keep it in sync with every insert,
+ * update and delete, including the JDBC batch paths that bypass Hibernate. {@code archived_license_fts} does the same
+ * for {@code archived_license}. An index is rebuilt from its table the first time it is created.
+ */
+@Component
+class LicenseSearchSchema {
+    private static final Logger log = LoggerFactory.getLogger(LicenseSearchSchema.class);
+    static final String TABLE = "license_fts";
+    static final String ARCHIVE_TABLE = "archived_license_fts";
+    private static final String COLUMNS = "customer_id, uuid, hw_fingerprint, metadata_json";
+
+    private final JdbcTemplate jdbc;
+
+    // the EntityManagerFactory dependency makes this run after Hibernate has created generated_license
+    LicenseSearchSchema(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    void create() {
+        create("generated_license", TABLE);
+        create("archived_license", ARCHIVE_TABLE);
+    }
+
+    private void create(String content, String fts) {
+        boolean exists = jdbc.queryForObject("select count(*) from sqlite_master where type = 'table' and name = ?",
+                Integer.class, fts) > 0;
+        // unicode61 splits uuids on '-' and drops JSON punctuation; prefix indexes make short prefix queries cheap
+        jdbc.execute("create virtual table if not exists " + fts + " using fts5(" + COLUMNS + ", "
+                + "content='" + content + "', content_rowid='id', "
+                + "tokenize='unicode61 remove_diacritics 2', prefix='2 3 4')");
+        jdbc.execute("create trigger if not exists " + content + "_fts_insert after insert on " + content
+                + " begin " + insert(fts, "new") + " end");
+        jdbc.execute("create trigger if not exists " + content + "_fts_delete after delete on " + content
+                + " begin " + delete(fts, "old") + " end");
+        jdbc.execute("create trigger if not exists " + content + "_fts_update after update of " + COLUMNS
+                + " on " + content + " begin " + delete(fts, "old") + " " + insert(fts, "new") + " end");
+        if (!exists) {
+            long start = System.nanoTime();
+            jdbc.execute("insert into " + fts + "(" + fts + ") values ('rebuild')");
+            log.info("Built search index {} in {} ms", fts, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static String insert(String fts, String row) {
+        return "insert into " + fts + "(rowid, " + COLUMNS + ") values (" + row + ".id, " + row + ".customer_id, "
+                + row + ".uuid, " + row + ".hw_fingerprint, " + row + ".metadata_json);";
+    }
+
+    private static String delete(String fts, String row) {
+        return "insert into " + fts + "(" + fts + ", rowid, " + COLUMNS + ") values ('delete', " + row + ".id, "
+                + row + ".customer_id, " + row + ".uuid, " + row + ".hw_fingerprint, " + row + ".metadata_json);";
+    }
+}
@@ -0,0 +1,18 @@
+package com.notaris.license_system.repo;
+
+import java.time.Instant;
+
+/**
+ * List-view projection of {@link com.notaris.license_system.model.GeneratedLicense} with its computed status; leaves
+ * out the license key itself.
+ */
+public record LicenseSummary(Long id,
+        String uuid,
+        String customerId,
+        Instant issueDate,
+        Instant expiryDate,
+        String hwFingerprint,
+        Integer usageLimit,
+        String metadataJson,
+        String status) {
+}
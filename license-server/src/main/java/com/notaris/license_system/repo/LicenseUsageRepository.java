@@ -0,0 +1,10 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.LicenseUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface LicenseUsageRepository extends JpaRepository<LicenseUsage, Long>, LicenseUsageRepositoryCustom {
+    Optional<LicenseUsage> findByUuid(String uuid);
+}
@@ -0,0 +1,17 @@
+package com.notaris.license_system.repo;
+
+import java.time.Instant;
+import java.util.Map;
+
+public interface LicenseUsageRepositoryCustom {
+    /**
+     * Adds each delta to the stored count of its uuid, creating missing rows, in one batched upsert, and returns the
+     * stored counts of those uuids afterwards, which include increments flushed by other instances.
+     */
+    Map<String, Long> addUsage(Map<String, Long> deltas, Instant at);
+
+    /**
+     * Stored count of {@code uuid}, 0 if it has none.
+     */
+    long usageCount(String uuid);
+}
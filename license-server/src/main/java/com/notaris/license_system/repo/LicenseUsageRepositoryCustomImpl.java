@@ -0,0 +1,53 @@
+package com.notaris.license_system.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.notaris.license_system.repo.GeneratedLicenseRepositoryCustomImpl.ts;
+import static com.notaris.license_system.repo.GeneratedLicenseRepositoryCustomImpl.utc;
+
+class LicenseUsageRepositoryCustomImpl implements LicenseUsageRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+    private static final String UPSERT = "insert into license_usage (uuid, usage_count, updated_at) values (?, ?, ?) "
+            + "on conflict(uuid) do update set usage_count = usage_count + excluded.usage_count, "
+            + "updated_at = excluded.updated_at";
+
+    private final JdbcTemplate jdbc;
+
+    LicenseUsageRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Map<String, Long> addUsage(Map<String, Long> deltas, Instant at) {
+        List<String> uuids = new ArrayList<>(deltas.keySet());
+        jdbc.batchUpdate(UPSERT, uuids, BATCH_SIZE, (ps, uuid) -> {
+            ps.setString(1, uuid);
+            ps.setLong(2, deltas.get(uuid));
+            ps.setTimestamp(3, ts(at), utc());
+        });
+        // read back in the same transaction; SQLite's RETURNING does not work with batched statements
+        Map<String, Long> totals = new HashMap<>(uuids.size() * 2);
+        for (int i = 0; i < uuids.size(); i += BATCH_SIZE) {
+            List<String> chunk = uuids.subList(i, Math.min(uuids.size(), i + BATCH_SIZE));
+            jdbc.query("select uuid, usage_count from license_usage where uuid in ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    rs -> {
+                        totals.put(rs.getString(1), rs.getLong(2));
+                    }, chunk.toArray());
+        }
+        return totals;
+    }
+
+    @Override
+    public long usageCount(String uuid) {
+        List<Long> count = jdbc.queryForList("select usage_count from license_usage where uuid = ?", Long.class, uuid);
+        return count.isEmpty() ? 0 : count.get(0);
+    }
+}
@@ -0,0 +1,25 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.RevokedLicense;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RevokedLicenseRepository extends JpaRepository<RevokedLicense, Long>, RevokedLicenseRepositoryCustom {
+    boolean existsByUuid(String uuid);
+
+    Optional<RevokedLicense> findByUuid(String uuid);
+
+    /**
+     * Highest id, which doubles as the revocation sequence number: ids only grow and SQLite commits one writer at a
+     * time, so rows become visible in id order.
+     */
+    @Query("select coalesce(max(r.id), 0) from RevokedLicense r")
+    long maxId();
+
+    @Query("select r.uuid from RevokedLicense r where r.id > :after and r.id <= :upTo")
+    List<String> findUuidsInRange(@Param("after") long after, @Param("upTo") long upTo);
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.RevokedLicense;
+
+import java.util.List;
+
+public interface RevokedLicenseRepositoryCustom {
+    /**
+     * Inserts revocations with JDBC batching, skipping uuids that are already revoked.
+     */
+    void insertMissing(List<RevokedLicense> revocations);
+}
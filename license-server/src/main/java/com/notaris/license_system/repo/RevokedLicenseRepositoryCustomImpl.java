@@ -0,0 +1,29 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.RevokedLicense;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static com.notaris.license_system.repo.GeneratedLicenseRepositoryCustomImpl.ts;
+import static com.notaris.license_system.repo.GeneratedLicenseRepositoryCustomImpl.utc;
+
+class RevokedLicenseRepositoryCustomImpl implements RevokedLicenseRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT = "insert into revoked_license (uuid, revoked_at) values (?, ?) "
+            + "on conflict(uuid) do nothing";
+
+    private final JdbcTemplate jdbc;
+
+    RevokedLicenseRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void insertMissing(List<RevokedLicense> revocations) {
+        jdbc.batchUpdate(INSERT, revocations, BATCH_SIZE, (ps, rl) -> {
+            ps.setString(1, rl.getUuid());
+            ps.setTimestamp(2, ts(rl.getRevokedAt()), utc());
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.notaris.license_system.repo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the unique index that the expiry bucket upsert ({@code on conflict(customer_id, expiry_day)}) relies on.
+ * Hibernate's SQLite dialect does not emit table-level unique constraints, so it cannot come from the mapping.
+ */
+@Component
+class StatsSchema {
+    private final JdbcTemplate jdbc;
+
+    // the EntityManagerFactory dependency makes this run after Hibernate has created license_expiry_bucket
+    StatsSchema(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    void create() {
+        jdbc.execute("create unique index if not exists uk_license_expiry_bucket_day "
+                + "on license_expiry_bucket (customer_id, expiry_day)");
+    }
+}
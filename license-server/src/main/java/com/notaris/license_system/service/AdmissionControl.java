@@ -0,0 +1,127 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.config.ApiKeyConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-API-key request limits: a token bucket ({@code rate} requests per second, up to {@code burst} at once) and a
+ * cap on requests in flight. Both are single atomics updated with CAS, so admitting a request never blocks.
+ * <p>
+ * Defaults come from {@code app.api.limits.rate/burst/max-concurrent} (0 = unlimited);
+ * {@code app.api.limits.overrides} sets individual keys as {@code key:rate:burst:maxConcurrent,...}.
+ */
+@Component
+public class AdmissionControl {
+    private final ApiKeyConfig apiKeyConfig;
+    private final MeterRegistry registry;
+    private final Limits defaults;
+    private final Map<String, Limits> overrides = new HashMap<>();
+    private final ConcurrentHashMap<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    public record Limits(double rate, int burst, int maxConcurrent) {
+        boolean unlimited() {
+            return rate <= 0 && maxConcurrent <= 0;
+        }
+    }
+
+    public AdmissionControl(ApiKeyConfig apiKeyConfig, MeterRegistry registry,
+            @Value("${app.api.limits.rate:0}") double rate,
+            @Value("${app.api.limits.burst:0}") int burst,
+            @Value("${app.api.limits.max-concurrent:0}") int maxConcurrent,
+            @Value("${app.api.limits.overrides:}") String overridesRaw) {
+        this.apiKeyConfig = apiKeyConfig;
+        this.registry = registry;
+        this.defaults = new Limits(rate, burst, maxConcurrent);
+        if (overridesRaw != null && !overridesRaw.isBlank()) {
+            for (String entry : overridesRaw.split("\\s*,\\s*")) {
+                String[] f = entry.split(":");
+                if (f.length != 4)
+                    throw new IllegalArgumentException("app.api.limits.overrides entry must be key:rate:burst:maxConcurrent");
+                overrides.put(f[0], new Limits(Double.parseDouble(f[1]), Integer.parseInt(f[2]),
+                        Integer.parseInt(f[3])));
+            }
+        }
+    }
+
+    /**
+     * Limiter for an authorized key, or {@code null} when the key is unknown or has no limits.
+     */
+    public Limiter limiter(String apiKey) {
+        if (apiKey == null)
+            return null;
+        Limiter l = limiters.get(apiKey);
+        if (l != null)
+            return l;
+        if (!apiKeyConfig.isAuthorized(apiKey))
+            return null;
+        Limits limits = overrides.getOrDefault(apiKey, defaults);
+        if (limits.unlimited())
+            return null;
+        return limiters.computeIfAbsent(apiKey, k -> new Limiter(limits, ApiKeyConfig.keyId(k)));
+    }
+
+    public final class Limiter {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final int maxConcurrent;
+        // theoretical arrival time of the next request (GCRA form of a token bucket)
+        private final AtomicLong tat = new AtomicLong(System.nanoTime());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rateRejected;
+        private final Counter concurrencyRejected;
+
+        Limiter(Limits limits, String keyId) {
+            this.intervalNanos = limits.rate() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / limits.rate()) : 0;
+            this.burstNanos = intervalNanos * Math.max(1, limits.burst());
+            this.maxConcurrent = limits.maxConcurrent();
+            this.rateRejected = Counter.builder("license.api.rejected")
+                    .tag("api_key", keyId).tag("reason", "rate").register(registry);
+            this.concurrencyRejected = Counter.builder("license.api.rejected")
+                    .tag("api_key", keyId).tag("reason", "concurrency").register(registry);
+        }
+
+        /**
+         * Admits the request and returns 0, or rejects it and returns the seconds to wait before retrying. An
+         * admitted request must be {@link #release() released} when it completes.
+         */
+        public long tryAcquire() {
+            if (maxConcurrent > 0 && inFlight.incrementAndGet() > maxConcurrent) {
+                inFlight.decrementAndGet();
+                concurrencyRejected.increment();
+                return 1;
+            }
+            if (intervalNanos > 0) {
+                for (;;) {
+                    long now = System.nanoTime();
+                    long current = tat.get();
+                    long next = Math.max(current, now) + intervalNanos;
+                    long wait = next - now - burstNanos;
+                    if (wait > 0) {
+                        if (maxConcurrent > 0)
+                            inFlight.decrementAndGet();
+                        rateRejected.increment();
+                        return Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                    }
+                    if (tat.compareAndSet(current, next))
+                        break;
+                }
+            }
+            return 0;
+        }
+
+        public void release() {
+            if (maxConcurrent > 0)
+                inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.crypto.LicenseValidator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only audit trail of license validations. {@link #record} hands the event to a lock-free {@link EventRing};
+ * a single writer thread appends it as a fixed-size record to a memory-mapped segment file in {@code app.audit.dir}
+ * and forces written records to disk every {@code app.audit.fsync-interval-ms} and whenever it runs idle, so one
+ * fsync covers all records of that interval. Segments are preallocated to {@code app.audit.segment-size-mb} and named
+ * after the time of their first record; a new one is started when the current one is full and on every start-up.
+ * Segments whose records are all older than {@code app.audit.retention-days} are deleted.
+ * <p>
+ * Record layout, 80 bytes, big-endian:
+ * <pre>
+ * timestamp millis (long) | uuid msb (long) | uuid lsb (long) | outcome ordinal (byte) | flags (byte)
+ * | caller address, IPv6 or IPv4-mapped (16 bytes) | hw fingerprint (32 bytes) | reserved (2) | CRC32C of the rest (int)
+ * </pre>
+ * A zero timestamp marks the end of a segment. The fingerprint is stored as-is when it is a 64-digit hex SHA-256
+ * (what clients compute), otherwise as the SHA-256 of the value. When the ring is full the event is dropped and
+ * counted in {@code license.audit.dropped}, so a slow disk never stalls validations; with
+ * {@code app.audit.block-when-full} callers wait for the writer instead, until it stops.
+ * <p>
+ * If writing fails (a full disk, a failed mapping) the writer abandons the current segment and retries in a new one,
+ * backing off from {@code app.audit.retry-initial-ms} to {@code app.audit.retry-max-ms}; the event that failed is
+ * kept, the ring fills up meanwhile. {@link #failure()} reports the outage, which the {@code auditLog} health
+ * indicator turns into {@code DOWN}.
+ */
+@Component
+public class AuditLog {
+    static final int RECORD_SIZE = 80;
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final String PREFIX = "audit-", SUFFIX = ".seg";
+    private static final int HAS_UUID = 1, HAS_HW = 2, HW_HASHED = 4, HAS_CALLER = 8;
+    private static final int CRC_OFFSET = RECORD_SIZE - 4;
+    // timestamps are taken before enqueueing, so neighbouring segments can overlap by a little
+    private static final long SKEW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Why the writer is not writing, and since when.
+     */
+    public record Failure(String error, Instant since) {
+    }
+
+    public record Entry(Instant timestamp, String uuid, LicenseValidator.Outcome outcome, String hwFingerprint,
+            boolean hwHashed, String caller) {
+    }
+
+    private record Event(long timestamp, String uuid, LicenseValidator.Outcome outcome, String hwFingerprint,
+            String caller) {
+    }
+
+    private record Segment(Path path, long start) {
+    }
+
+    private record Active(Path path, int length) {
+    }
+
+    private final boolean enabled;
+    private final boolean blockWhenFull;
+    private final Path dir;
+    private final int segmentSize;
+    private final long fsyncIntervalNanos;
+    private final Duration retention;
+    private final long retryInitialNanos;
+    private final long retryMaxNanos;
+    private final LicenseMetrics metrics;
+    private final EventRing<Event> ring;
+    private final Thread writer = new Thread(this::run, "audit-writer");
+    private volatile boolean running;
+    // segment being written and how much of it readers may look at
+    private volatile Active active;
+    private volatile Failure failure;
+
+    // writer thread only
+    private final byte[] record = new byte[RECORD_SIZE];
+    private final ByteBuffer recordBuf = ByteBuffer.wrap(record);
+    private final CRC32C crc = new CRC32C();
+    private MessageDigest sha256;
+    // requests come in bursts from the same client
+    private String lastCaller;
+    private byte[] lastAddress;
+    private Path path;
+    private MappedByteBuffer segment;
+    private int position;
+    private int synced;
+    private long lastSync;
+    // event whose append failed, written before anything else once the writer recovers
+    private Event retry;
+
+    public AuditLog(@Value("${app.audit.enabled:true}") boolean enabled,
+            @Value("${app.audit.dir:audit}") String dir,
+            @Value("${app.audit.buffer-size:65536}") int bufferSize,
+            @Value("${app.audit.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${app.audit.fsync-interval-ms:100}") long fsyncIntervalMs,
+            @Value("${app.audit.retention-days:90}") int retentionDays,
+            @Value("${app.audit.block-when-full:false}") boolean blockWhenFull,
+            @Value("${app.audit.retry-initial-ms:100}") long retryInitialMs,
+            @Value("${app.audit.retry-max-ms:30000}") long retryMaxMs,
+            LicenseMetrics metrics) {
+        this.enabled = enabled;
+        this.blockWhenFull = blockWhenFull;
+        this.dir = Paths.get(dir);
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, (long) segmentSizeMb << 20) / RECORD_SIZE * RECORD_SIZE;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.retention = Duration.ofDays(retentionDays);
+        this.retryInitialNanos = TimeUnit.MILLISECONDS.toNanos(retryInitialMs);
+        this.retryMaxNanos = Math.max(retryInitialNanos, TimeUnit.MILLISECONDS.toNanos(retryMaxMs));
+        this.metrics = metrics;
+        this.ring = new EventRing<>(bufferSize);
+    }
+
+    @PostConstruct
+    void start() throws IOException, NoSuchAlgorithmException {
+        if (!enabled)
+            return;
+        Files.createDirectories(dir);
+        sha256 = MessageDigest.getInstance("SHA-256");
+        running = true;
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a validation for the audit trail; {@code uuid}, {@code hwFingerprint} and {@code caller} (a literal IP
+     * address) may be null.
+     */
+    public void record(String uuid, LicenseValidator.Outcome outcome, String hwFingerprint, String caller) {
+        if (!enabled)
+            return;
+        Event e = new Event(System.currentTimeMillis(), uuid, outcome, hwFingerprint, caller);
+        while (!ring.offer(e)) {
+            if (!blockWhenFull || !running) {
+                metrics.auditDropped();
+                return;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS / 20);
+        }
+    }
+
+    /**
+     * The current write outage, or null while records are being written.
+     */
+    public Failure failure() {
+        return failure;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the writer thread is alive; false when auditing is disabled.
+     */
+    public boolean isRunning() {
+        return writer.isAlive();
+    }
+
+    private void run() {
+        long backoff = retryInitialNanos;
+        while (running || ring.size() > 0 || retry != null) {
+            int n = 0;
+            try {
+                for (Event e; n < BATCH && (e = next()) != null; n++) {
+                    retry = e;
+                    append(e);
+                    retry = null;
+                }
+                if (n > 0)
+                    active = new Active(path, position);
+                if (position > synced && (n == 0 || System.nanoTime() - lastSync >= fsyncIntervalNanos))
+                    sync();
+            } catch (IOException | RuntimeException e) {
+                if (failure == null) {
+                    failure = new Failure(e.toString(), Instant.now());
+                    log.error("Audit log writer failed; retrying, validations are not audited meanwhile", e);
+                } else {
+                    log.warn("Audit log writer still failing: {}", e.toString());
+                }
+                if (!(e instanceof IOException || e instanceof UncheckedIOException) && retry != null) {
+                    // not an I/O problem, so retrying this event would fail the same way
+                    retry = null;
+                    metrics.auditDropped();
+                }
+                // records already in the segment stay there; continue in a fresh one
+                segment = null;
+                position = synced = 0;
+                if (!running)
+                    return;
+                LockSupport.parkNanos(backoff);
+                backoff = Math.min(backoff * 2, retryMaxNanos);
+                continue;
+            }
+            if (failure != null && n > 0) {
+                log.info("Audit log writer recovered after failing since {}", failure.since());
+                failure = null;
+                backoff = retryInitialNanos;
+            }
+            if (n == 0)
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        if (segment != null && position > synced)
+            sync();
+    }
+
+    private Event next() {
+        return retry != null ? retry : ring.poll();
+    }
+
+    private void append(Event e) throws IOException {
+        if (segment == null || position + RECORD_SIZE > segmentSize)
+            rotate(e.timestamp());
+        encode(e);
+        segment.put(position, record);
+        position += RECORD_SIZE;
+    }
+
+    private void rotate(long timestamp) throws IOException {
+        if (segment != null && position > synced)
+            sync();
+        Path next = dir.resolve(name(timestamp));
+        while (Files.exists(next))
+            next = dir.resolve(name(++timestamp));
+        // the mapping stays valid after the channel is closed
+        try (FileChannel ch = FileChannel.open(next, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segment = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException | RuntimeException e) {
+            // e.g. no space to preallocate; do not leave an empty segment behind
+            segment = null;
+            Files.deleteIfExists(next);
+            throw e;
+        }
+        path = next;
+        position = 0;
+        synced = 0;
+        lastSync = System.nanoTime();
+        active = new Active(path, 0);
+        log.info("Audit log segment {} started", path);
+    }
+
+    private void sync() {
+        long start = System.nanoTime();
+        segment.force(synced, position - synced);
+        synced = position;
+        lastSync = System.nanoTime();
+        metrics.auditSync(lastSync - start);
+    }
+
+    private void encode(Event e) {
+        Arrays.fill(record, (byte) 0);
+        int flags = 0;
+        recordBuf.putLong(0, e.timestamp());
+        UUID uuid = parse(e.uuid());
+        if (uuid != null) {
+            recordBuf.putLong(8, uuid.getMostSignificantBits());
+            recordBuf.putLong(16, uuid.getLeastSignificantBits());
+            flags |= HAS_UUID;
+        }
+        recordBuf.put(24, (byte) e.outcome().ordinal());
+        if (!Objects.equals(e.caller(), lastCaller)) {
+            lastCaller = e.caller();
+            lastAddress = address(lastCaller);
+        }
+        byte[] address = lastAddress;
+        if (address != null) {
+            System.arraycopy(address, 0, record, 26, 16);
+            flags |= HAS_CALLER;
+        }
+        if (e.hwFingerprint() != null) {
+            byte[] hw = sha256Bytes(e.hwFingerprint());
+            if (hw == null) {
+                hw = sha256.digest(e.hwFingerprint().getBytes(StandardCharsets.UTF_8));
+                flags |= HW_HASHED;
+            }
+            System.arraycopy(hw, 0, record, 42, 32);
+            flags |= HAS_HW;
+        }
+        recordBuf.put(25, (byte) flags);
+        crc.reset();
+        crc.update(record, 0, CRC_OFFSET);
+        recordBuf.putInt(CRC_OFFSET, (int) crc.getValue());
+    }
+
+    /**
+     * Returns up to {@code limit} records, newest first, with a timestamp in {@code [from, to)} and, unless
+     * {@code uuid} is null, for that license. Null bounds are open. Segments outside the range are not read.
+     */
+    public List<Entry> scan(String uuid, Instant from, Instant to, int limit) throws IOException {
+        if (!enabled || limit <= 0)
+            return List.of();
+        UUID u = null;
+        if (uuid != null && (u = parse(uuid)) == null)
+            return List.of();
+        long lo = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long hi = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        Active current = active;
+        List<Segment> segments = segments();
+        List<Entry> result = new ArrayList<>();
+        for (int i = segments.size() - 1; i >= 0 && result.size() < limit; i--) {
+            Segment s = segments.get(i);
+            if (s.start() - SKEW_MILLIS >= hi)
+                continue;
+            if (i + 1 < segments.size() && segments.get(i + 1).start() + SKEW_MILLIS < lo)
+                break;
+            int length = current != null && s.path().equals(current.path()) ? current.length() : -1;
+            scan(s.path(), length, u, lo, hi, limit - result.size(), result);
+        }
+        return result;
+    }
+
+    private void scan(Path file, int length, UUID uuid, long lo, long hi, int limit, List<Entry> out)
+            throws IOException {
+        ArrayDeque<Entry> newest = new ArrayDeque<>();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = length >= 0 ? length : ch.size();
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C check = new CRC32C();
+            for (int pos = 0; pos + RECORD_SIZE <= size; pos += RECORD_SIZE) {
+                long ts = buf.getLong(pos);
+                if (ts == 0)
+                    break;
+                if (ts < lo || ts >= hi)
+                    continue;
+                if (uuid != null && ((buf.get(pos + 25) & HAS_UUID) == 0
+                        || buf.getLong(pos + 8) != uuid.getMostSignificantBits()
+                        || buf.getLong(pos + 16) != uuid.getLeastSignificantBits()))
+                    continue;
+                check.reset();
+                check.update(buf.slice(pos, CRC_OFFSET));
+                if ((int) check.getValue() != buf.getInt(pos + CRC_OFFSET))
+                    continue;
+                if (newest.size() == limit)
+                    newest.removeFirst();
+                newest.addLast(decode(buf, pos));
+            }
+        } catch (NoSuchFileException e) {
+            // removed by retention in the meantime
+            return;
+        }
+        while (!newest.isEmpty())
+            out.add(newest.removeLast());
+    }
+
+    private static Entry decode(ByteBuffer buf, int pos) {
+        int flags = buf.get(pos + 25);
+        String uuid = (flags & HAS_UUID) != 0
+                ? new UUID(buf.getLong(pos + 8), buf.getLong(pos + 16)).toString()
+                : null;
+        LicenseValidator.Outcome[] outcomes = LicenseValidator.Outcome.values();
+        int o = buf.get(pos + 24);
+        String caller = null;
+        if ((flags & HAS_CALLER) != 0) {
+            byte[] a = new byte[16];
+            buf.get(pos + 26, a);
+            try {
+                caller = InetAddress.getByAddress(a).getHostAddress();
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        String hw = null;
+        if ((flags & HAS_HW) != 0) {
+            char[] hex = new char[64];
+            for (int i = 0; i < 32; i++) {
+                int b = buf.get(pos + 42 + i);
+                hex[i * 2] = HEX[(b >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[b & 0xF];
+            }
+            hw = new String(hex);
+        }
+        return new Entry(Instant.ofEpochMilli(buf.getLong(pos)), uuid,
+                o >= 0 && o < outcomes.length ? outcomes[o] : null, hw, (flags & HW_HASHED) != 0, caller);
+    }
+
+    @Scheduled(initialDelayString = "${app.audit.purge-initial-delay-ms:60000}",
+            fixedDelayString = "${app.audit.purge-interval-ms:3600000}")
+    public void purge() {
+        if (!enabled || retention.isZero())
+            return;
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        Active current = active;
+        int removed = 0;
+        try {
+            List<Segment> segments = segments();
+            // a segment holds records up to the start of the next one
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                Path p = segments.get(i).path();
+                if (segments.get(i + 1).start() + SKEW_MILLIS >= cutoff
+                        || (current != null && p.equals(current.path())))
+                    break;
+                Files.deleteIfExists(p);
+                removed++;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to remove expired audit log segments", e);
+        }
+        if (removed > 0)
+            log.info("Removed {} audit log segments older than {} days", removed, retention.toDays());
+    }
+
+    private List<Segment> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(AuditLog::segment)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparingLong(Segment::start))
+                    .toList();
+        }
+    }
+
+    private static Segment segment(Path p) {
+        String n = p.getFileName().toString();
+        if (!n.startsWith(PREFIX) || !n.endsWith(SUFFIX))
+            return null;
+        try {
+            return new Segment(p, Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length())));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String name(long timestamp) {
+        return String.format("%s%013d%s", PREFIX, timestamp, SUFFIX);
+    }
+
+    private static UUID parse(String uuid) {
+        if (uuid == null || uuid.length() != 36)
+            return null;
+        try {
+            return UUID.fromString(uuid);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] sha256Bytes(String s) {
+        if (s.length() != 64)
+            return null;
+        byte[] b = new byte[32];
+        for (int i = 0; i < 64; i++) {
+            int d = Character.digit(s.charAt(i), 16);
+            if (d < 0 || Character.isUpperCase(s.charAt(i)))
+                return null;
+            b[i / 2] |= (byte) (i % 2 == 0 ? d << 4 : d);
+        }
+        return b;
+    }
+
+    /**
+     * The 16-byte form of a literal IPv4 or IPv6 address, or null for anything else (host names are not resolved).
+     */
+    private static byte[] address(String caller) {
+        if (caller == null || !(caller.indexOf(':') >= 0 || IPV4.matcher(caller).matches()))
+            return null;
+        try {
+            byte[] a = InetAddress.getByName(caller).getAddress();
+            if (a.length == 16)
+                return a;
+            byte[] mapped = new byte[16];
+            mapped[10] = mapped[11] = (byte) 0xFF;
+            System.arraycopy(a, 0, mapped, 12, 4);
+            return mapped;
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled)
+            return;
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+}
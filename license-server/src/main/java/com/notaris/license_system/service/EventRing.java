@@ -0,0 +1,72 @@
+package com.notaris.license_system.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each slot carries a sequence number: a producer
+ * claims a slot by CAS on the tail and publishes it by advancing the slot's sequence, the consumer frees it by
+ * advancing the sequence by one lap. Neither side takes a lock or allocates.
+ */
+final class EventRing<T> {
+    private final int mask;
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // consumer only, published for size()
+    private volatile long head;
+
+    EventRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        this.mask = capacity - 1;
+        this.slots = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++)
+            sequences.set(i, i);
+    }
+
+    /**
+     * Adds {@code e}, or returns {@code false} if the ring is full.
+     */
+    boolean offer(T e) {
+        long pos = tail.get();
+        for (;;) {
+            int slot = (int) pos & mask;
+            long diff = sequences.getAcquire(slot) - pos;
+            if (diff == 0) {
+                if (tail.weakCompareAndSetVolatile(pos, pos + 1)) {
+                    slots[slot] = e;
+                    sequences.setRelease(slot, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element, or returns {@code null} if none is published yet. Must only be called from the
+     * consumer thread.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long h = head;
+        int slot = (int) h & mask;
+        if (sequences.getAcquire(slot) != h + 1)
+            return null;
+        T e = (T) slots[slot];
+        slots[slot] = null;
+        sequences.setRelease(slot, h + mask + 1);
+        head = h + 1;
+        return e;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
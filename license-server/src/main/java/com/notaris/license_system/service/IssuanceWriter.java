@@ -0,0 +1,195 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.model.GeneratedLicense;
+import com.notaris.license_system.repo.GeneratedLicenseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind queue for new license rows. A single writer thread drains the queue and commits whatever has
+ * accumulated as one batched insert, so concurrent issuance shares one SQLite transaction (and one fsync) instead of
+ * contending for the write lock. Futures complete only after their group has committed. If a group fails, its rows
+ * are retried in transactions of their own so only the offending rows fail. Rows still queued when the writer stops,
+ * or dies, are failed rather than left waiting.
+ */
+@Component
+public class IssuanceWriter {
+    private static final Logger log = LoggerFactory.getLogger(IssuanceWriter.class);
+
+    private final GeneratedLicenseRepository generatedRepo;
+    private final TransactionTemplate tx;
+    private final LicenseMetrics metrics;
+    private final LicenseStats stats;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final long timeoutMs;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer = new Thread(this::run, "issuance-writer");
+    private volatile boolean running = true;
+
+    private record Pending(GeneratedLicense license, CompletableFuture<Void> done) {
+    }
+
+    public IssuanceWriter(GeneratedLicenseRepository generatedRepo,
+            PlatformTransactionManager txManager,
+            LicenseMetrics metrics,
+            LicenseStats stats,
+            @Value("${app.issuance.writer.max-batch:500}") int maxBatch,
+            @Value("${app.issuance.writer.max-delay-ms:2}") long maxDelayMs,
+            @Value("${app.issuance.writer.timeout-ms:30000}") long timeoutMs) {
+        this.generatedRepo = generatedRepo;
+        this.tx = new TransactionTemplate(txManager);
+        this.metrics = metrics;
+        this.stats = stats;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PostConstruct
+    void start() {
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public CompletableFuture<Void> submit(GeneratedLicense license) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (!running) {
+            done.completeExceptionally(shutDown());
+            return done;
+        }
+        Pending p = new Pending(license, done);
+        queue.add(p);
+        // the writer may have stopped and drained the queue between the check and the add; whoever removes the
+        // entry completes it
+        if (!running && queue.remove(p))
+            done.completeExceptionally(shutDown());
+        return done;
+    }
+
+    /**
+     * Queues the row and blocks until its group has been committed, for at most {@code app.issuance.writer.timeout-ms}.
+     *
+     * @throws CompletionException if the row failed to commit or did not commit in time
+     */
+    public void write(GeneratedLicense license) {
+        try {
+            submit(license).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new CompletionException(
+                    new IllegalStateException("Issued license not committed within " + timeoutMs + " ms", e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private void run() {
+        List<Pending> group = new ArrayList<>(maxBatch);
+        try {
+            process(group);
+        } catch (Throwable t) {
+            log.error("Issuance writer failed; new licenses can no longer be stored", t);
+            group.forEach(p -> p.done().completeExceptionally(t));
+            throw t;
+        } finally {
+            running = false;
+            failQueued();
+        }
+    }
+
+    private void process(List<Pending> group) {
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                group.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (group.size() < maxBatch) {
+                    long wait = deadline - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null)
+                        break;
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(group, maxBatch - group.size());
+            }
+            if (!group.isEmpty())
+                commit(group);
+            group.clear();
+        }
+    }
+
+    private void commit(List<Pending> group) {
+        long start = System.nanoTime();
+        try {
+            insert(group.stream().map(Pending::license).toList());
+            metrics.writerCommit(group.size(), System.nanoTime() - start);
+            group.forEach(p -> p.done().complete(null));
+        } catch (Exception e) {
+            if (group.size() == 1) {
+                log.warn("Failed to commit issued license", e);
+                group.get(0).done().completeExceptionally(e);
+                return;
+            }
+            // one bad row must not fail its neighbours: retry the group row by row and fail only what fails again
+            log.warn("Failed to commit {} issued licenses as a group, retrying one by one", group.size(), e);
+            for (Pending p : group) {
+                long t = System.nanoTime();
+                try {
+                    insert(List.of(p.license()));
+                    metrics.writerCommit(1, System.nanoTime() - t);
+                    p.done().complete(null);
+                } catch (Exception rowError) {
+                    log.warn("Failed to commit issued license {}", p.license().getUuid(), rowError);
+                    p.done().completeExceptionally(rowError);
+                }
+            }
+        }
+    }
+
+    private void insert(List<GeneratedLicense> rows) {
+        tx.executeWithoutResult(status -> {
+            generatedRepo.insertAll(rows);
+            stats.issued(rows);
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // no interrupt: the writer may be inside a JDBC call; it notices the flag within one poll timeout
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        failQueued();
+    }
+
+    private void failQueued() {
+        for (Pending p; (p = queue.poll()) != null;)
+            p.done().completeExceptionally(shutDown());
+    }
+
+    private static IllegalStateException shutDown() {
+        return new IllegalStateException("Issuance writer is shut down");
+    }
+}
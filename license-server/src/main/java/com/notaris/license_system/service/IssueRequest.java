@@ -0,0 +1,12 @@
+package com.notaris.license_system.service;
+
+import java.util.Map;
+
+public record IssueRequest(String customerId,
+        int daysValid,
+        String hwFingerprint,
+        Map<String, Object> metadata,
+        Integer usageLimit,
+        String version,
+        boolean useAes) {
+}
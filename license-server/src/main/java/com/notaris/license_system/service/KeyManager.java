@@ -0,0 +1,191 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.crypto.KeyMaterial;
+import com.notaris.license_system.crypto.LicenseSystem;
+import com.notaris.license_system.crypto.LicenseValidator;
+import com.notaris.license_system.crypto.SignatureAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Owns the key files and keeps the parsed keys plus their generator/validator instances in memory. The snapshot is
+ * replaced atomically whenever the keys are changed through this class or the files change on disk.
+ */
+@Component
+public class KeyManager {
+    private static final Logger log = LoggerFactory.getLogger(KeyManager.class);
+
+    private final Path privPath;
+    private final Path pubPath;
+    private final Path aesPath;
+    private final Path retiredDir;
+    private final SignatureAlgorithm algorithm;
+    private final LicenseValidator.RevocationChecker revocationChecker;
+    private final ApplicationEventPublisher events;
+    private final LicenseMetrics metrics;
+    private volatile Loaded loaded;
+
+    private record Loaded(KeyMaterial keys, List<String> stamp) {
+    }
+
+    /**
+     * Published whenever the key material is replaced, so anything derived from the old keys can be dropped.
+     */
+    public record KeysChangedEvent(KeyMaterial keys) {
+    }
+
+    public KeyManager(@Value("${app.keys.private}") String priv,
+            @Value("${app.keys.public}") String pub,
+            @Value("${app.keys.aes}") String aes,
+            @Value("${app.keys.retired-dir:retired-keys}") String retiredDir,
+            @Value("${app.keys.algorithm:ED25519}") SignatureAlgorithm algorithm,
+            RevocationIndex revocationIndex,
+            ApplicationEventPublisher events,
+            LicenseMetrics metrics) {
+        this.privPath = Path.of(priv);
+        this.pubPath = Path.of(pub);
+        this.aesPath = Path.of(aes);
+        this.retiredDir = Path.of(retiredDir);
+        this.algorithm = algorithm;
+        this.revocationChecker = revocationIndex;
+        this.events = events;
+        this.metrics = metrics;
+    }
+
+    public KeyMaterial current() {
+        Loaded l = loaded;
+        return l != null ? l.keys() : reload();
+    }
+
+    public synchronized KeyMaterial reload() {
+        List<String> stamp = stamp();
+        KeyMaterial keys = metrics.keysLoad()
+                .record(() -> KeyMaterial.load(privPath, pubPath, retiredDir, aesPath, revocationChecker, metrics));
+        boolean replaced = loaded != null;
+        loaded = new Loaded(keys, stamp);
+        if (replaced)
+            events.publishEvent(new KeysChangedEvent(keys));
+        return keys;
+    }
+
+    @Scheduled(fixedDelayString = "${app.keys.reload-interval-ms:5000}")
+    public void reloadIfChanged() {
+        Loaded l = loaded;
+        if (l == null || l.stamp().equals(stamp()))
+            return;
+        try {
+            reload();
+            log.info("Key files changed on disk, reloaded key material");
+        } catch (Exception e) {
+            log.warn("Failed to reload changed key files", e);
+        }
+    }
+
+    private List<String> stamp() {
+        return List.of(stamp(privPath), stamp(pubPath), stamp(retiredDir), stamp(aesPath));
+    }
+
+    private static String stamp(Path path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return attrs.lastModifiedTime() + ":" + attrs.size();
+        } catch (Exception e) {
+            return "-";
+        }
+    }
+
+    public boolean privateExists() {
+        return Files.exists(privPath);
+    }
+
+    public boolean publicExists() {
+        return Files.exists(pubPath);
+    }
+
+    public boolean aesExists() {
+        return Files.exists(aesPath);
+    }
+
+    public String readPrivate() {
+        try {
+            return Files.readString(privPath);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public String readPublic() {
+        try {
+            return Files.readString(pubPath);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public String readAesB64() {
+        try {
+            return Base64.getEncoder().encodeToString(Files.readAllBytes(aesPath));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a new key pair with {@code app.keys.algorithm}. The public key being replaced is kept in
+     * {@code app.keys.retired-dir} so tokens it signed keep validating.
+     */
+    public synchronized void generateKeyPair() {
+        try {
+            if (Files.exists(pubPath)) {
+                String kid = LicenseSystem.keyId(LicenseSystem.loadPublic(pubPath));
+                Files.createDirectories(retiredDir);
+                Files.copy(pubPath, retiredDir.resolve(kid + ".pem"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            var kp = LicenseSystem.generateKeyPair(algorithm);
+            LicenseSystem.savePrivate(kp.getPrivate(), privPath);
+            LicenseSystem.savePublic(kp.getPublic(), pubPath);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            reload();
+        }
+    }
+
+    public synchronized void deleteKeyPair() {
+        try {
+            Files.deleteIfExists(privPath);
+            Files.deleteIfExists(pubPath);
+        } catch (Exception ignored) {
+        }
+        reload();
+    }
+
+    public synchronized void generateAes() {
+        try {
+            Files.write(aesPath, LicenseSystem.generateAesKey());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            reload();
+        }
+    }
+
+    public synchronized void deleteAes() {
+        try {
+            Files.deleteIfExists(aesPath);
+        } catch (Exception ignored) {
+        }
+        reload();
+    }
+}
@@ -0,0 +1,73 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.repo.ArchivedLicenseRepository;
+import com.notaris.license_system.repo.ArchivedLicenseRepositoryCustom.Moved;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Moves licenses that expired more than {@code app.archive.after-days} ago, with their revocations, from
+ * {@code generated_license}/{@code revoked_license} into {@code archived_license}/{@code archived_revocation}. Each
+ * sweep works in transactions of {@code app.archive.chunk-size} licenses so the single SQLite writer is never held
+ * for long, and stops after {@code app.archive.max-chunks} chunks. Archived licenses still report as revoked through
+ * the revocation index and can be listed with the "include archived" option.
+ */
+@Component
+public class LicenseArchiver {
+    private static final Logger log = LoggerFactory.getLogger(LicenseArchiver.class);
+
+    private final ArchivedLicenseRepository archivedRepo;
+    private final LicenseMetrics metrics;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public LicenseArchiver(ArchivedLicenseRepository archivedRepo, LicenseMetrics metrics,
+            PlatformTransactionManager txManager,
+            @Value("${app.archive.enabled:true}") boolean enabled,
+            @Value("${app.archive.after-days:365}") int afterDays,
+            @Value("${app.archive.chunk-size:1000}") int chunkSize,
+            @Value("${app.archive.max-chunks:100}") int maxChunks) {
+        this.archivedRepo = archivedRepo;
+        this.metrics = metrics;
+        this.tx = new TransactionTemplate(txManager);
+        this.enabled = enabled;
+        this.retention = Duration.ofDays(afterDays);
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    @Scheduled(initialDelayString = "${app.archive.interval-ms:3600000}",
+            fixedDelayString = "${app.archive.interval-ms:3600000}")
+    public void sweep() {
+        if (!enabled)
+            return;
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(retention);
+        long start = System.nanoTime();
+        int licenses = 0;
+        int revocations = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            Moved moved = tx.execute(status -> archivedRepo.archiveExpired(cutoff, chunkSize, now));
+            licenses += moved.licenses();
+            revocations += moved.revocations();
+            if (moved.licenses() < chunkSize)
+                break;
+        }
+        long nanos = System.nanoTime() - start;
+        metrics.archiveSweep(licenses, revocations, nanos);
+        if (licenses > 0)
+            log.info("Archived {} licenses and {} revocations expired before {} in {} ms ({} licenses/s)", licenses,
+                    revocations, cutoff, nanos / 1_000_000, licenses * 1_000_000_000L / Math.max(1, nanos));
+    }
+}
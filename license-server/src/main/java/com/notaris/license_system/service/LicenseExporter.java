@@ -0,0 +1,216 @@
+package com.notaris.license_system.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.notaris.license_system.model.ArchivedLicense;
+import com.notaris.license_system.model.GeneratedLicense;
+import com.notaris.license_system.repo.ArchivedLicenseRepository;
+import com.notaris.license_system.repo.GeneratedLicenseRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes every issued license as CSV or NDJSON while reading them through a database cursor: the licenses table in id
+ * order, then (unless excluded) the archive, flagged by the {@code archived} column. Each row is detached once
+ * written, so memory use does not grow with the number of licenses. Status is computed per row from the expiry date
+ * and the in-memory revocation index. License keys are not exported.
+ */
+@Component
+public class LicenseExporter {
+    private static final String[] COLUMNS = { "id", "uuid", "customer_id", "issue_date", "expiry_date",
+            "hw_fingerprint", "usage_limit", "metadata", "status", "created_at", "archived" };
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final GeneratedLicenseRepository generatedRepo;
+    private final ArchivedLicenseRepository archivedRepo;
+    private final RevocationIndex revocationIndex;
+    private final EntityManager entityManager;
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private record Row(Long id, String uuid, String customerId, Instant issueDate, Instant expiryDate,
+            String hwFingerprint, Integer usageLimit, String metadataJson, Instant createdAt, boolean archived) {
+
+        static Row of(GeneratedLicense gl) {
+            return new Row(gl.getId(), gl.getUuid(), gl.getCustomerId(), gl.getIssueDate(), gl.getExpiryDate(),
+                    gl.getHwFingerprint(), gl.getUsageLimit(), gl.getMetadataJson(), gl.getCreatedAt(), false);
+        }
+
+        static Row of(ArchivedLicense al) {
+            return new Row(al.getId(), al.getUuid(), al.getCustomerId(), al.getIssueDate(), al.getExpiryDate(),
+                    al.getHwFingerprint(), al.getUsageLimit(), al.getMetadataJson(), al.getCreatedAt(), true);
+        }
+    }
+
+    public LicenseExporter(GeneratedLicenseRepository generatedRepo, ArchivedLicenseRepository archivedRepo,
+            RevocationIndex revocationIndex, EntityManager entityManager) {
+        this.generatedRepo = generatedRepo;
+        this.archivedRepo = archivedRepo;
+        this.revocationIndex = revocationIndex;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(Format format, boolean includeArchived, OutputStream out) throws IOException {
+        Instant now = Instant.now();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        Consumer<Row> sink;
+        if (format == Format.CSV) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+            sink = row -> writeCsv(writer, row, status(row, now));
+        } else {
+            // flush() below only moves the generator's buffer into the writer; the writer keeps buffering
+            JsonGenerator gen = JSON.createGenerator(writer).disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            sink = row -> writeJson(gen, writer, row, status(row, now));
+        }
+        try {
+            try (Stream<GeneratedLicense> rows = generatedRepo.streamAll()) {
+                rows.forEach(gl -> {
+                    sink.accept(Row.of(gl));
+                    entityManager.detach(gl);
+                });
+            }
+            if (includeArchived) {
+                try (Stream<ArchivedLicense> rows = archivedRepo.streamAll()) {
+                    rows.forEach(al -> {
+                        sink.accept(Row.of(al));
+                        entityManager.detach(al);
+                    });
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private String status(Row row, Instant now) {
+        if (revocationIndex.isRevoked(row.uuid()))
+            return "Revoked";
+        return row.expiryDate().isBefore(now) ? "Expired" : "Valid";
+    }
+
+    private static void writeCsv(Writer w, Row row, String status) {
+        try {
+            w.write(String.valueOf(row.id()));
+            w.write(',');
+            csv(w, row.uuid());
+            w.write(',');
+            csv(w, row.customerId());
+            w.write(',');
+            csv(w, String.valueOf(row.issueDate()));
+            w.write(',');
+            csv(w, String.valueOf(row.expiryDate()));
+            w.write(',');
+            csv(w, row.hwFingerprint());
+            w.write(',');
+            if (row.usageLimit() != null)
+                w.write(row.usageLimit().toString());
+            w.write(',');
+            csv(w, row.metadataJson());
+            w.write(',');
+            w.write(status);
+            w.write(',');
+            csv(w, String.valueOf(row.createdAt()));
+            w.write(',');
+            w.write(String.valueOf(row.archived()));
+            w.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void csv(Writer w, String value) throws IOException {
+        if (value == null)
+            return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            w.write(value);
+            return;
+        }
+        w.write('"');
+        w.write(value.replace("\"", "\"\""));
+        w.write('"');
+    }
+
+    private static void writeJson(JsonGenerator g, Writer w, Row row, String status) {
+        try {
+            g.writeStartObject();
+            g.writeNumberField("id", row.id());
+            g.writeStringField("uuid", row.uuid());
+            g.writeStringField("customer_id", row.customerId());
+            g.writeStringField("issue_date", row.issueDate().toString());
+            g.writeStringField("expiry_date", row.expiryDate().toString());
+            g.writeStringField("hw_fingerprint", row.hwFingerprint());
+            g.writeFieldName("usage_limit");
+            if (row.usageLimit() != null)
+                g.writeNumber(row.usageLimit());
+            else
+                g.writeNull();
+            g.writeFieldName("metadata");
+            writeMetadata(g, row.metadataJson());
+            g.writeStringField("status", status);
+            g.writeStringField("created_at", row.createdAt().toString());
+            g.writeBooleanField("archived", row.archived());
+            g.writeEndObject();
+            g.flush();
+            w.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Metadata is normally stored as serialized JSON, but imports keep non-JSON text as is; that is written as a
+     * string so one such row cannot make the export invalid.
+     */
+    private static void writeMetadata(JsonGenerator g, String metadata) throws IOException {
+        if (metadata == null) {
+            g.writeNull();
+            return;
+        }
+        String json = reserialize(metadata);
+        if (json != null)
+            g.writeRawValue(json);
+        else
+            g.writeString(metadata);
+    }
+
+    /**
+     * {@code text} re-serialized if it is exactly one JSON value, otherwise null.
+     */
+    private static String reserialize(String text) {
+        StringWriter out = new StringWriter(text.length());
+        try (JsonParser p = JSON.createParser(text); JsonGenerator g = JSON.createGenerator(out)) {
+            if (p.nextToken() == null)
+                return null;
+            g.copyCurrentStructure(p);
+            if (p.nextToken() != null)
+                return null;
+        } catch (IOException e) {
+            return null;
+        }
+        return out.toString();
+    }
+}
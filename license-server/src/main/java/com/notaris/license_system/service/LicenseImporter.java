@@ -0,0 +1,244 @@
+package com.notaris.license_system.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notaris.license_system.model.GeneratedLicense;
+import com.notaris.license_system.model.ImportJob;
+import com.notaris.license_system.model.RevokedLicense;
+import com.notaris.license_system.repo.GeneratedLicenseRepository;
+import com.notaris.license_system.repo.ImportJobRepository;
+import com.notaris.license_system.repo.RevokedLicenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Imports licenses and revocations from NDJSON, one record per line:
+ * <pre>
+ * {"type":"license","uuid":"...","customer_id":"...","issue_date":"...","expiry_date":"...","license_key":"...",
+ *  "hw_fingerprint":"...","metadata":{...},"usage_limit":10,"created_at":"..."}
+ * {"type":"revocation","uuid":"...","revoked_at":"..."}
+ * </pre>
+ * {@code type} defaults to {@code license}; dates are ISO-8601 instants. The input is read as a stream and written in
+ * chunks of {@code app.import.chunk-size} records, each chunk in its own transaction with JDBC batched statements. A
+ * license whose uuid already exists is overwritten; a revocation of an already revoked uuid is skipped.
+ * <p>
+ * Progress is kept per named job and committed with each chunk. Running a job again with the same input skips the
+ * records of the chunks already committed, so a failed import resumes where it stopped; a completed job is not run
+ * again.
+ */
+@Component
+public class LicenseImporter {
+    private static final Logger log = LoggerFactory.getLogger(LicenseImporter.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final GeneratedLicenseRepository generatedRepo;
+    private final RevokedLicenseRepository revokedRepo;
+    private final ImportJobRepository jobRepo;
+    private final RevocationIndex revocationIndex;
+    private final VerifiedTokenCache tokenCache;
+    private final LicenseStats stats;
+    private final TransactionTemplate tx;
+    private final ObjectMapper mapper;
+    private final int chunkSize;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public LicenseImporter(GeneratedLicenseRepository generatedRepo,
+            RevokedLicenseRepository revokedRepo,
+            ImportJobRepository jobRepo,
+            RevocationIndex revocationIndex,
+            VerifiedTokenCache tokenCache,
+            LicenseStats stats,
+            PlatformTransactionManager txManager,
+            ObjectMapper mapper,
+            @Value("${app.import.chunk-size:5000}") int chunkSize) {
+        this.generatedRepo = generatedRepo;
+        this.revokedRepo = revokedRepo;
+        this.jobRepo = jobRepo;
+        this.revocationIndex = revocationIndex;
+        this.tokenCache = tokenCache;
+        this.stats = stats;
+        this.tx = new TransactionTemplate(txManager);
+        this.mapper = mapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public Optional<ImportJob> job(String name) {
+        return jobRepo.findByName(name);
+    }
+
+    /**
+     * Runs (or resumes) the named job over {@code in}. A record that cannot be parsed or is missing required fields
+     * fails the job at that record's chunk; the chunks before it stay committed.
+     */
+    public ImportJob run(String name, InputStream in) throws IOException {
+        if (!running.add(name))
+            throw new IllegalStateException("import " + name + " is already running");
+        try {
+            return doRun(name, in);
+        } finally {
+            running.remove(name);
+        }
+    }
+
+    private ImportJob doRun(String name, InputStream in) throws IOException {
+        ImportJob job = start(name);
+        if (job.getStatus() == ImportJob.Status.COMPLETED)
+            return job;
+        long skip = job.getCommittedRecords();
+        if (skip > 0)
+            log.info("Resuming import {} after {} committed records", name, skip);
+        long record = 0;
+        List<GeneratedLicense> licenses = new ArrayList<>();
+        List<RevokedLicense> revocations = new ArrayList<>();
+        try (MappingIterator<JsonNode> it = mapper.readerFor(JsonNode.class).readValues(in)) {
+            while (it.hasNextValue()) {
+                JsonNode node = it.nextValue();
+                if (++record <= skip)
+                    continue;
+                try {
+                    parse(node, licenses, revocations);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("record " + record + ": " + e.getMessage(), e);
+                }
+                if (licenses.size() + revocations.size() >= chunkSize) {
+                    job = commit(job.getId(), record, licenses, revocations);
+                    licenses.clear();
+                    revocations.clear();
+                }
+            }
+            job = commit(job.getId(), record, licenses, revocations);
+            job = finish(job.getId(), ImportJob.Status.COMPLETED, null);
+            log.info("Import {} completed: {} licenses, {} revocations", name, job.getLicenses(),
+                    job.getRevocations());
+            // upserts and old revocations are not counted incrementally
+            stats.reconcile();
+            return job;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Import {} failed after {} committed records", name, job.getCommittedRecords(), e);
+            finish(job.getId(), ImportJob.Status.FAILED, String.valueOf(e.getMessage()));
+            throw e;
+        }
+    }
+
+    private ImportJob start(String name) {
+        return tx.execute(status -> {
+            ImportJob job = jobRepo.findByName(name).orElseGet(() -> {
+                ImportJob j = new ImportJob();
+                j.setName(name);
+                return j;
+            });
+            if (job.getStatus() != ImportJob.Status.COMPLETED) {
+                job.setStatus(ImportJob.Status.RUNNING);
+                job.setError(null);
+                job.setUpdatedAt(Instant.now());
+            }
+            return jobRepo.save(job);
+        });
+    }
+
+    private ImportJob commit(long jobId, long record, List<GeneratedLicense> licenses,
+            List<RevokedLicense> revocations) {
+        ImportJob job = tx.execute(status -> {
+            if (!licenses.isEmpty())
+                generatedRepo.upsertAll(licenses);
+            if (!revocations.isEmpty())
+                revokedRepo.insertMissing(revocations);
+            ImportJob j = jobRepo.findById(jobId).orElseThrow();
+            j.setCommittedRecords(record);
+            j.setLicenses(j.getLicenses() + licenses.size());
+            j.setRevocations(j.getRevocations() + revocations.size());
+            j.setUpdatedAt(Instant.now());
+            return j;
+        });
+        // other instances pick these up by id on their next poll; this one sees them right away
+        for (RevokedLicense rl : revocations) {
+            revocationIndex.add(rl.getUuid());
+            tokenCache.invalidate(rl.getUuid());
+        }
+        for (GeneratedLicense gl : licenses)
+            tokenCache.invalidate(gl.getUuid());
+        if (!licenses.isEmpty() || !revocations.isEmpty())
+            log.info("Import {}: {} records committed", job.getName(), record);
+        return job;
+    }
+
+    private ImportJob finish(long jobId, ImportJob.Status result, String error) {
+        return tx.execute(status -> {
+            ImportJob j = jobRepo.findById(jobId).orElseThrow();
+            j.setStatus(result);
+            j.setError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH)
+                    : error);
+            j.setUpdatedAt(Instant.now());
+            return j;
+        });
+    }
+
+    private void parse(JsonNode node, List<GeneratedLicense> licenses, List<RevokedLicense> revocations) {
+        String type = node.path("type").asText("license");
+        switch (type) {
+            case "license" -> {
+                GeneratedLicense gl = new GeneratedLicense();
+                gl.setUuid(required(node, "uuid"));
+                gl.setCustomerId(required(node, "customer_id"));
+                gl.setIssueDate(instant(required(node, "issue_date")));
+                gl.setExpiryDate(instant(required(node, "expiry_date")));
+                gl.setLicenseKey(required(node, "license_key"));
+                gl.setHwFingerprint(optional(node, "hw_fingerprint"));
+                JsonNode meta = node.get("metadata");
+                if (meta != null && !meta.isNull())
+                    gl.setMetadataJson(meta.isTextual() ? meta.asText() : meta.toString());
+                JsonNode usage = node.get("usage_limit");
+                if (usage != null && !usage.isNull())
+                    gl.setUsageLimit(usage.asInt());
+                String created = optional(node, "created_at");
+                if (created != null)
+                    gl.setCreatedAt(instant(created));
+                licenses.add(gl);
+            }
+            case "revocation" -> {
+                RevokedLicense rl = new RevokedLicense();
+                rl.setUuid(required(node, "uuid"));
+                String revokedAt = optional(node, "revoked_at");
+                if (revokedAt != null)
+                    rl.setRevokedAt(instant(revokedAt));
+                revocations.add(rl);
+            }
+            default -> throw new IllegalArgumentException("unknown type " + type);
+        }
+    }
+
+    private static String required(JsonNode node, String field) {
+        String value = optional(node, field);
+        if (value == null || value.isEmpty())
+            throw new IllegalArgumentException(field + " is required");
+        return value;
+    }
+
+    private static String optional(JsonNode node, String field) {
+        JsonNode v = node.get(field);
+        return v == null || v.isNull() ? null : v.asText();
+    }
+
+    private static Instant instant(String value) {
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid instant " + value);
+        }
+    }
+}
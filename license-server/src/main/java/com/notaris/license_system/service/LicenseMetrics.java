@@ -0,0 +1,115 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.crypto.LicenseValidator;
+import com.notaris.license_system.crypto.StageTimer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the license pipeline. Stage timers ({@code license.stage}) are fed by the generator and validator through
+ * {@link StageTimer}; the service records end-to-end timings ({@code license.issue}, {@code license.validate}),
+ * validation outcomes and issuance per API key. All timers publish a histogram plus p50/p95/p99.
+ */
+@Component
+public class LicenseMetrics implements StageTimer {
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<LicenseValidator.Outcome, Counter> outcomes = new EnumMap<>(LicenseValidator.Outcome.class);
+    private final Map<String, Counter> issuedByKey = new ConcurrentHashMap<>();
+    private final Timer keysLoad;
+    private final Timer issue;
+    private final Timer validate;
+    private final Timer writerCommit;
+    private final DistributionSummary writerGroupSize;
+    private final Timer archiveSweep;
+    private final Counter archivedLicenses;
+    private final Counter archivedRevocations;
+    private final Timer auditSync;
+    private final Counter auditDropped;
+
+    public LicenseMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values())
+            stages.put(stage, timer("license.stage").tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        for (LicenseValidator.Outcome outcome : LicenseValidator.Outcome.values())
+            outcomes.put(outcome, Counter.builder("license.validation")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        this.keysLoad = timer("license.keys.load").register(registry);
+        this.issue = timer("license.issue").register(registry);
+        this.validate = timer("license.validate").register(registry);
+        this.writerCommit = timer("license.issuance.writer.commit").register(registry);
+        this.writerGroupSize = DistributionSummary.builder("license.issuance.writer.group.size")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.archiveSweep = timer("license.archive.sweep").register(registry);
+        this.archivedLicenses = Counter.builder("license.archive.moved").tag("table", "license").register(registry);
+        this.archivedRevocations = Counter.builder("license.archive.moved").tag("table", "revocation")
+                .register(registry);
+        this.auditSync = timer("license.audit.fsync").register(registry);
+        this.auditDropped = Counter.builder("license.audit.dropped").register(registry);
+    }
+
+    private static Timer.Builder timer(String name) {
+        return Timer.builder(name).publishPercentileHistogram().publishPercentiles(0.5, 0.95, 0.99);
+    }
+
+    @Override
+    public void record(Stage stage, long nanos) {
+        stages.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer keysLoad() {
+        return keysLoad;
+    }
+
+    public Timer issue() {
+        return issue;
+    }
+
+    public Timer validate() {
+        return validate;
+    }
+
+    public void writerCommit(int groupSize, long nanos) {
+        writerCommit.record(nanos, TimeUnit.NANOSECONDS);
+        writerGroupSize.record(groupSize);
+    }
+
+    public void archiveSweep(int licenses, int revocations, long nanos) {
+        archiveSweep.record(nanos, TimeUnit.NANOSECONDS);
+        archivedLicenses.increment(licenses);
+        archivedRevocations.increment(revocations);
+    }
+
+    public void auditSync(long nanos) {
+        auditSync.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void auditDropped() {
+        auditDropped.increment();
+    }
+
+    public void outcome(LicenseValidator.Outcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    /**
+     * Counts issued licenses per API key. The tag is a key id derived from the key, never the key itself.
+     */
+    public void issued(String keyId, int count) {
+        issuedByKey.computeIfAbsent(keyId, k -> Counter.builder("license.issued").tag("api_key", k)
+                .register(registry)).increment(count);
+    }
+}
@@ -0,0 +1,19 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.repo.LicenseSummary;
+
+import java.util.List;
+
+/**
+ * One keyset page of the license list. {@code firstId}/{@code lastId} are the cursors for the previous and next page.
+ */
+public record LicensePage(List<LicenseSummary> rows, boolean hasPrevious, boolean hasNext) {
+
+    public Long firstId() {
+        return rows.isEmpty() ? null : rows.get(0).id();
+    }
+
+    public Long lastId() {
+        return rows.isEmpty() ? null : rows.get(rows.size() - 1).id();
+    }
+}
@@ -0,0 +1,385 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.crypto.IssuedLicense;
+import com.notaris.license_system.crypto.KeyMaterial;
+import com.notaris.license_system.crypto.LicensePayload;
+import com.notaris.license_system.crypto.LicenseValidator;
+import com.notaris.license_system.crypto.SignatureAlgorithm;
+import com.notaris.license_system.crypto.StageTimer;
+import com.notaris.license_system.model.GeneratedLicense;
+import com.notaris.license_system.model.RevokedLicense;
+import com.notaris.license_system.repo.GeneratedLicenseRepository;
+import com.notaris.license_system.repo.LicenseSummary;
+import com.notaris.license_system.repo.RevokedLicenseRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+public class LicenseService {
+
+    private final KeyManager keyManager;
+    private final GeneratedLicenseRepository generatedRepo;
+    private final RevokedLicenseRepository revokedRepo;
+    private final RevocationIndex revocationIndex;
+    private final VerifiedTokenCache tokenCache;
+    private final ExecutorService cryptoExecutor;
+    private final IssuanceWriter issuanceWriter;
+    private final LicenseMetrics metrics;
+    private final UsageMeter usageMeter;
+    private final LicenseStats stats;
+    private final AuditLog auditLog;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public LicenseService(KeyManager keyManager,
+            GeneratedLicenseRepository generatedRepo,
+            RevokedLicenseRepository revokedRepo,
+            RevocationIndex revocationIndex,
+            VerifiedTokenCache tokenCache,
+            ExecutorService cryptoExecutor,
+            IssuanceWriter issuanceWriter,
+            LicenseMetrics metrics,
+            UsageMeter usageMeter,
+            LicenseStats stats,
+            AuditLog auditLog) {
+        this.keyManager = keyManager;
+        this.generatedRepo = generatedRepo;
+        this.revokedRepo = revokedRepo;
+        this.revocationIndex = revocationIndex;
+        this.tokenCache = tokenCache;
+        this.cryptoExecutor = cryptoExecutor;
+        this.issuanceWriter = issuanceWriter;
+        this.metrics = metrics;
+        this.usageMeter = usageMeter;
+        this.stats = stats;
+        this.auditLog = auditLog;
+    }
+
+    public boolean privateExists() {
+        return keyManager.privateExists();
+    }
+
+    public boolean publicExists() {
+        return keyManager.publicExists();
+    }
+
+    public boolean aesExists() {
+        return keyManager.aesExists();
+    }
+
+    public String keyAlgorithm() {
+        SignatureAlgorithm algorithm = keyManager.current().algorithm();
+        return algorithm != null ? algorithm.name() : null;
+    }
+
+    public String readPrivate() {
+        return keyManager.readPrivate();
+    }
+
+    public String readPublic() {
+        return keyManager.readPublic();
+    }
+
+    public String readAesB64() {
+        return keyManager.readAesB64();
+    }
+
+    public String generateLicense(String customerId, int days, String hw, Map<String, Object> meta, Integer usageLimit,
+            String version, boolean useAes) {
+        long start = System.nanoTime();
+        KeyMaterial keys = keyManager.current();
+        IssueRequest r = new IssueRequest(customerId, days, hw, meta, usageLimit, version, useAes);
+        GeneratedLicense gl = onCryptoPool(() -> issue(keys, r));
+        try {
+            issuanceWriter.write(gl);
+        } catch (CompletionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        metrics.issue().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return gl.getLicenseKey();
+    }
+
+    /**
+     * Issues a batch of licenses: tokens are signed in parallel on the crypto executor and the rows are handed to the
+     * issuance writer, which commits them in groups. Results are in request order; an item that fails carries its
+     * error instead of a key.
+     */
+    public List<IssueResult> generateLicenses(List<IssueRequest> requests) {
+        KeyMaterial keys = keyManager.current();
+        List<CompletableFuture<GeneratedLicense>> futures = requests.stream()
+                .map(r -> CompletableFuture.supplyAsync(() -> issue(keys, r), cryptoExecutor))
+                .toList();
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> written = futures.stream()
+                .map(f -> f.thenCompose(gl -> issuanceWriter.submit(gl).thenApply(v -> {
+                    metrics.issue().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    return gl.getLicenseKey();
+                })))
+                .toList();
+        List<IssueResult> results = new ArrayList<>(requests.size());
+        for (CompletableFuture<String> f : written) {
+            try {
+                results.add(IssueResult.ok(f.join()));
+            } catch (CompletionException e) {
+                results.add(IssueResult.failed(rootMessage(e)));
+            }
+        }
+        return results;
+    }
+
+    private GeneratedLicense issue(KeyMaterial keys, IssueRequest r) {
+        try {
+            IssuedLicense issued = keys.generator(r.useAes()).issue(r.customerId(), r.daysValid(), r.hwFingerprint(),
+                    r.metadata(), r.usageLimit(), r.version());
+            LicensePayload p = issued.payload();
+            GeneratedLicense gl = new GeneratedLicense();
+            gl.setUuid(p.uuid());
+            gl.setCustomerId(p.customerId());
+            gl.setIssueDate(p.issueDate());
+            gl.setExpiryDate(p.expiryDate());
+            gl.setHwFingerprint(p.hwFingerprint());
+            gl.setMetadataJson(mapper.writeValueAsString(p.metadata()));
+            gl.setUsageLimit(p.usageLimit());
+            gl.setLicenseKey(issued.token());
+            return gl;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs CPU-bound crypto on the bounded crypto pool when called from a virtual thread, so request handling cannot
+     * oversubscribe the cores and the per-thread Signature/Cipher instances are reused. Platform threads run it
+     * inline.
+     */
+    private <T> T onCryptoPool(Supplier<T> work) {
+        if (!Thread.currentThread().isVirtual())
+            return work.get();
+        try {
+            return CompletableFuture.supplyAsync(work, cryptoExecutor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re)
+                throw re;
+            throw e;
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null)
+            e = e.getCause();
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    public record IssueResult(String licenseKey, String error) {
+        static IssueResult ok(String licenseKey) {
+            return new IssueResult(licenseKey, null);
+        }
+
+        static IssueResult failed(String error) {
+            return new IssueResult(null, error);
+        }
+    }
+
+    public LicenseValidator.ValidationResult validate(String license, String hw, boolean useAes) {
+        return validate(license, hw, useAes, false);
+    }
+
+    /**
+     * @param metered count this validation against the license's {@code usage_limit} (when usage metering is
+     *                enabled) and fail it once the limit is reached
+     */
+    public LicenseValidator.ValidationResult validate(String license, String hw, boolean useAes, boolean metered) {
+        return validate(license, hw, useAes, metered, null);
+    }
+
+    /**
+     * @param caller address of the client, kept in the {@link AuditLog}; may be null
+     */
+    public LicenseValidator.ValidationResult validate(String license, String hw, boolean useAes, boolean metered,
+            String caller) {
+        long start = System.nanoTime();
+        LicenseValidator.ValidationResult result;
+        String uuid = null;
+        try {
+            KeyMaterial keys = keyManager.current();
+            ValidateRequest r = new ValidateRequest(license, hw, useAes);
+            // a cache hit needs no crypto, so only a miss pays for the hop to the crypto pool
+            Decoded decoded = cached(keys, r);
+            if (decoded == null)
+                decoded = onCryptoPool(() -> verify(keys, r));
+            if (decoded.payload() == null) {
+                result = LicenseValidator.ValidationResult.invalid(null, false, decoded.failure());
+            } else {
+                uuid = decoded.payload().uuid();
+                long t = System.nanoTime();
+                boolean revoked = uuid != null && revocationIndex.isRevoked(uuid);
+                metrics.record(StageTimer.Stage.REVOCATION, System.nanoTime() - t);
+                result = keys.validator(useAes).check(decoded.payload(), hw, revoked);
+                if (metered)
+                    result = meter(result, decoded.payload());
+            }
+        } catch (Exception e) {
+            result = LicenseValidator.ValidationResult.invalid(null, false, LicenseValidator.Outcome.MALFORMED);
+        }
+        metrics.outcome(result.outcome());
+        auditLog.record(uuid, result.outcome(), hw, caller);
+        metrics.validate().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Validates a batch of tokens: signatures are verified in parallel on the crypto executor and revocation is
+     * resolved for the whole batch in one pass over the revocation index. Results are in request order.
+     */
+    public List<LicenseValidator.ValidationResult> validateAll(List<ValidateRequest> requests, boolean metered) {
+        return validateAll(requests, metered, null);
+    }
+
+    public List<LicenseValidator.ValidationResult> validateAll(List<ValidateRequest> requests, boolean metered,
+            String caller) {
+        long start = System.nanoTime();
+        KeyMaterial keys = keyManager.current();
+        List<Decoded> decoded = requests.stream()
+                .map(r -> {
+                    Decoded hit = cached(keys, r);
+                    return hit != null
+                            ? CompletableFuture.completedFuture(hit)
+                            : CompletableFuture.supplyAsync(() -> verify(keys, r), cryptoExecutor);
+                })
+                .toList()
+                .stream()
+                .map(CompletableFuture::join)
+                .toList();
+        long t = System.nanoTime();
+        Set<String> revoked = revocationIndex.revokedAmong(decoded.stream()
+                .map(Decoded::payload)
+                .filter(Objects::nonNull)
+                .map(LicensePayload::uuid)
+                .toList());
+        metrics.record(StageTimer.Stage.REVOCATION, System.nanoTime() - t);
+        List<LicenseValidator.ValidationResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            LicensePayload payload = decoded.get(i).payload();
+            ValidateRequest r = requests.get(i);
+            LicenseValidator.ValidationResult result;
+            if (payload == null) {
+                result = LicenseValidator.ValidationResult.invalid(null, false, decoded.get(i).failure());
+            } else {
+                result = keys.validator(r.useAes()).check(payload, r.hwFingerprint(),
+                        revoked.contains(payload.uuid()));
+                if (metered)
+                    result = meter(result, payload);
+            }
+            metrics.outcome(result.outcome());
+            auditLog.record(payload != null ? payload.uuid() : null, result.outcome(), r.hwFingerprint(), caller);
+            results.add(result);
+        }
+        metrics.validate().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return results;
+    }
+
+    private LicenseValidator.ValidationResult meter(LicenseValidator.ValidationResult result, LicensePayload payload) {
+        if (!result.valid() || payload.uuid() == null || usageMeter.tryUse(payload.uuid(), payload.usageLimit()))
+            return result;
+        return LicenseValidator.ValidationResult.invalid(result.data(), false,
+                LicenseValidator.Outcome.USAGE_EXCEEDED);
+    }
+
+    private record Decoded(LicensePayload payload, LicenseValidator.Outcome failure) {
+    }
+
+    /**
+     * The cached payload of an already verified token, or null when the token has to be verified.
+     */
+    private Decoded cached(KeyMaterial keys, ValidateRequest r) {
+        try {
+            LicensePayload payload = tokenCache.get(r.licenseKey(), r.useAes(), keys);
+            return payload != null ? new Decoded(payload, null) : null;
+        } catch (Exception e) {
+            return new Decoded(null, LicenseValidator.Outcome.MALFORMED);
+        }
+    }
+
+    private Decoded verify(KeyMaterial keys, ValidateRequest r) {
+        try {
+            LicensePayload payload = keys.validator(r.useAes()).decode(r.licenseKey());
+            if (payload == null)
+                return new Decoded(null, LicenseValidator.Outcome.BAD_SIGNATURE);
+            tokenCache.put(r.licenseKey(), r.useAes(), keys, payload);
+            return new Decoded(payload, null);
+        } catch (Exception e) {
+            return new Decoded(null, LicenseValidator.Outcome.MALFORMED);
+        }
+    }
+
+    @Transactional
+    public boolean revoke(String uuid) {
+        if (revokedRepo.existsByUuid(uuid))
+            return false;
+        RevokedLicense rl = new RevokedLicense();
+        rl.setUuid(uuid);
+        revokedRepo.save(rl);
+        generatedRepo.findByUuid(uuid).ifPresent(stats::revoked);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                revocationIndex.add(uuid);
+                tokenCache.invalidate(uuid);
+            }
+        });
+        return true;
+    }
+
+    public void generateKeyPair() {
+        keyManager.generateKeyPair();
+    }
+
+    public void deleteKeyPair() {
+        keyManager.deleteKeyPair();
+    }
+
+    public void generateAes() {
+        keyManager.generateAes();
+    }
+
+    public void deleteAes() {
+        keyManager.deleteAes();
+    }
+
+    /**
+     * Returns one page of licenses using keyset pagination on the id: {@code after} moves forward from a page's last
+     * id, {@code before} moves back from a page's first id. Filtering and status are evaluated by the database.
+     * Archived licenses are only included when asked for.
+     */
+    public LicensePage listPage(String q, String customer, String status, Long after, Long before, int size,
+            boolean includeArchived) {
+        String st = status == null || status.isBlank() ? null
+                : status.substring(0, 1).toUpperCase() + status.substring(1).toLowerCase();
+        Instant now = Instant.now();
+        if (before != null) {
+            List<LicenseSummary> rows = new ArrayList<>(
+                    generatedRepo.findSummaries(q, customer, st, now, null, before, size + 1, includeArchived));
+            boolean hasPrevious = rows.size() > size;
+            if (hasPrevious)
+                rows.remove(size);
+            Collections.reverse(rows);
+            return new LicensePage(rows, hasPrevious, true);
+        }
+        List<LicenseSummary> rows = new ArrayList<>(generatedRepo.findSummaries(q, customer, st, now, after, null,
+                size + 1, includeArchived));
+        boolean hasNext = rows.size() > size;
+        if (hasNext)
+            rows.remove(size);
+        return new LicensePage(rows, after != null, hasNext);
+    }
+}
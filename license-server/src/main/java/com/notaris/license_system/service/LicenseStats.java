@@ -0,0 +1,108 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.model.CustomerStats;
+import com.notaris.license_system.model.GeneratedLicense;
+import com.notaris.license_system.model.IssuanceDay;
+import com.notaris.license_system.repo.CustomerStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * License counts (valid, expired, revoked) per customer and issuance per day, kept in small aggregate tables so
+ * reading them costs O(customers). Issuance and revocation update the counters in the same transaction as the license
+ * rows. Unexpired licenses are counted per customer and expiry day; {@link #rollover()} moves past days into the
+ * expired counts, so a license counts as valid until the end of its expiry day (UTC). {@link #reconcile()} rebuilds
+ * everything from the license tables to repair drift, e.g. after an import.
+ */
+@Component
+public class LicenseStats {
+    private static final Logger log = LoggerFactory.getLogger(LicenseStats.class);
+
+    private final CustomerStatsRepository statsRepo;
+    private final TransactionTemplate tx;
+    private final int issuanceDays;
+
+    public record Totals(long total, long valid, long expired, long revoked) {
+    }
+
+    public record Snapshot(Totals totals, List<CustomerStats> customers, List<IssuanceDay> issuance) {
+    }
+
+    public LicenseStats(CustomerStatsRepository statsRepo, PlatformTransactionManager txManager,
+            @Value("${app.stats.issuance-days:30}") int issuanceDays) {
+        this.statsRepo = statsRepo;
+        this.tx = new TransactionTemplate(txManager);
+        this.issuanceDays = issuanceDays;
+    }
+
+    /**
+     * Counts newly issued licenses; call inside the transaction that inserts them.
+     */
+    public void issued(List<GeneratedLicense> licenses) {
+        statsRepo.addIssued(licenses);
+    }
+
+    /**
+     * Counts a revocation; call inside the transaction that records it.
+     */
+    public void revoked(GeneratedLicense license) {
+        statsRepo.addRevoked(license.getCustomerId(), license.getExpiryDate());
+    }
+
+    public Snapshot snapshot() {
+        List<CustomerStats> customers = statsRepo.findAll(Sort.by("customerId"));
+        long total = 0, expired = 0, revoked = 0;
+        for (CustomerStats c : customers) {
+            total += c.getTotal();
+            expired += c.getExpired();
+            revoked += c.getRevoked();
+        }
+        List<IssuanceDay> issuance = statsRepo.findIssuanceSince(today() - issuanceDays + 1);
+        return new Snapshot(new Totals(total, total - expired - revoked, expired, revoked), customers, issuance);
+    }
+
+    @Scheduled(initialDelayString = "${app.stats.rollover-interval-ms:60000}",
+            fixedDelayString = "${app.stats.rollover-interval-ms:60000}")
+    public void rollover() {
+        long today = today();
+        Integer customers = tx.execute(status -> statsRepo.rollover(today));
+        if (customers != null && customers > 0)
+            log.debug("Rolled expired licenses of {} customers into the expired counts", customers);
+    }
+
+    @Scheduled(initialDelayString = "${app.stats.reconcile-interval-ms:21600000}",
+            fixedDelayString = "${app.stats.reconcile-interval-ms:21600000}")
+    public void reconcile() {
+        long today = today();
+        long start = System.nanoTime();
+        Integer drifted = tx.execute(status -> statsRepo.reconcile(today));
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        if (drifted != null && drifted > 0)
+            log.warn("License statistics reconciled in {} ms; {} customers had drifted", ms, drifted);
+        else
+            log.info("License statistics reconciled in {} ms; no drift", ms);
+    }
+
+    // tables created by an upgrade start empty: fill them once instead of waiting for the first reconciliation
+    @EventListener(ApplicationReadyEvent.class)
+    void initialize() {
+        if (statsRepo.count() == 0)
+            reconcile();
+    }
+
+    private static long today() {
+        return LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+}
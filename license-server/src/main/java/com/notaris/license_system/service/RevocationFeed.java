@@ -0,0 +1,65 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.crypto.KeyMaterial;
+import com.notaris.license_system.crypto.LicenseSystem;
+import com.notaris.license_system.crypto.RevocationSnapshot;
+import com.notaris.license_system.repo.RevokedLicenseRepository;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publishes the revoked uuids as signed {@link RevocationSnapshot}s for clients that validate offline. The sequence
+ * number is the highest {@code revoked_license} id; a client holding sequence {@code s} fetches only the revocations
+ * after it. The full snapshot is cached until the sequence or the signing key changes.
+ */
+@Component
+public class RevocationFeed {
+    private final RevokedLicenseRepository revokedRepo;
+    private final KeyManager keyManager;
+    private volatile Snapshot full;
+
+    /**
+     * @param body signed snapshot bytes
+     */
+    public record Snapshot(long sequence, boolean delta, byte[] body, KeyMaterial keys) {
+    }
+
+    public RevocationFeed(RevokedLicenseRepository revokedRepo, KeyManager keyManager) {
+        this.revokedRepo = revokedRepo;
+        this.keyManager = keyManager;
+    }
+
+    public long sequence() {
+        return revokedRepo.maxId();
+    }
+
+    /**
+     * Returns the revocations after {@code since}, or the full set when {@code since} is null, 0 or ahead of the
+     * server (e.g. after a database restore).
+     */
+    public Snapshot snapshot(Long since) throws GeneralSecurityException {
+        KeyMaterial keys = keyManager.current();
+        if (keys.privateKey() == null || keys.publicKey() == null)
+            throw new IllegalStateException("Signing key not available");
+        long sequence = revokedRepo.maxId();
+        if (since != null && since > 0 && since <= sequence)
+            return new Snapshot(sequence, true, sign(keys, true, since, sequence,
+                    revokedRepo.findUuidsInRange(since, sequence)), keys);
+        Snapshot cached = full;
+        if (cached != null && cached.sequence() == sequence && cached.keys() == keys)
+            return cached;
+        Snapshot built = new Snapshot(sequence, false, sign(keys, false, 0, sequence,
+                revokedRepo.findUuidsInRange(0, sequence)), keys);
+        full = built;
+        return built;
+    }
+
+    private static byte[] sign(KeyMaterial keys, boolean delta, long from, long to, List<String> uuids)
+            throws GeneralSecurityException {
+        return RevocationSnapshot.write(delta, from, to, Instant.now(), uuids, keys.privateKey(),
+                LicenseSystem.keyId(keys.publicKey()));
+    }
+}
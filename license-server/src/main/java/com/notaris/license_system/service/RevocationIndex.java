@@ -0,0 +1,218 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.crypto.LicenseValidator;
+import com.notaris.license_system.model.RevokedLicense;
+import com.notaris.license_system.repo.ArchivedLicenseRepository;
+import com.notaris.license_system.repo.RevokedLicenseRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory view of the revoked UUIDs so validation never waits on the database. UUIDs are kept as two longs in an
+ * open-addressed table with a Bloom filter in front of it; lookups are lock-free and writes are serialized.
+ * <p>
+ * Revocations made by other instances sharing the database, including imported ones that keep their original
+ * {@code revokedAt}, are picked up by polling for {@code revoked_license} ids above the highest one seen (the same
+ * sequence as {@link RevocationFeed}), so a revocation becomes visible here within
+ * {@code app.revocation.refresh-interval-ms}.
+ */
+@Component
+public class RevocationIndex implements LicenseValidator.RevocationChecker {
+    private static final Logger log = LoggerFactory.getLogger(RevocationIndex.class);
+    private static final int MIN_CAPACITY = 1024;
+
+    private final RevokedLicenseRepository revokedRepo;
+    private final ArchivedLicenseRepository archivedRepo;
+    // uuids not in canonical UUID form (e.g. imported from elsewhere), matched exactly
+    private final Set<String> other = ConcurrentHashMap.newKeySet();
+    private volatile Table table = new Table(MIN_CAPACITY);
+    // highest revoked_license id loaded; guarded by this
+    private long sequence;
+
+    public RevocationIndex(RevokedLicenseRepository revokedRepo, ArchivedLicenseRepository archivedRepo) {
+        this.revokedRepo = revokedRepo;
+        this.archivedRepo = archivedRepo;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        var all = revokedRepo.findAll();
+        // archived licenses are long expired, but their tokens should still report as revoked
+        var archived = archivedRepo.findArchivedRevocationUuids();
+        Table t = new Table(Math.max(MIN_CAPACITY, (all.size() + archived.size()) * 2));
+        other.clear();
+        long max = 0;
+        for (RevokedLicense rl : all) {
+            addTo(t, rl.getUuid());
+            max = Math.max(max, rl.getId());
+        }
+        for (String uuid : archived)
+            addTo(t, uuid);
+        table = t;
+        sequence = max;
+        log.info("Loaded {} revoked licenses ({} archived) into the revocation index", all.size() + archived.size(),
+                archived.size());
+    }
+
+    @Scheduled(initialDelayString = "${app.revocation.refresh-interval-ms:5000}",
+            fixedDelayString = "${app.revocation.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        // ids only grow and SQLite commits one writer at a time, so nothing can appear below the sequence
+        long upTo = revokedRepo.maxId();
+        if (upTo <= sequence)
+            return;
+        for (String uuid : revokedRepo.findUuidsInRange(sequence, upTo))
+            add(uuid);
+        sequence = upTo;
+    }
+
+    public synchronized void add(String uuid) {
+        Table t = table;
+        if (t.size >= t.capacity) {
+            Table grown = new Table(t.capacity * 2);
+            t.copyTo(grown);
+            table = grown;
+            t = grown;
+        }
+        addTo(t, uuid);
+    }
+
+    @Override
+    public boolean isRevoked(String uuid) {
+        UUID u = parse(uuid);
+        if (u == null || u.getMostSignificantBits() == 0)
+            return !other.isEmpty() && other.contains(uuid);
+        return table.contains(u.getMostSignificantBits(), u.getLeastSignificantBits());
+    }
+
+    public Set<String> revokedAmong(Collection<String> uuids) {
+        Set<String> revoked = new HashSet<>();
+        for (String uuid : uuids)
+            if (uuid != null && isRevoked(uuid))
+                revoked.add(uuid);
+        return revoked;
+    }
+
+    public int size() {
+        return table.size + other.size();
+    }
+
+    private void addTo(Table t, String uuid) {
+        UUID u = parse(uuid);
+        if (u == null || u.getMostSignificantBits() == 0)
+            other.add(uuid);
+        else
+            t.add(u.getMostSignificantBits(), u.getLeastSignificantBits());
+    }
+
+    // canonical lowercase only, like RevocationSnapshot: UUID.fromString ignores case, the uuid column does not
+    private static UUID parse(String uuid) {
+        if (uuid == null || uuid.length() != 36)
+            return null;
+        try {
+            UUID u = UUID.fromString(uuid);
+            return u.toString().equals(uuid) ? u : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Single-writer, multi-reader table. A slot is published by writing the low half first and the high half last;
+     * a zero high half marks an empty slot, which is why UUIDs with zero high bits are kept in {@link #other}.
+     */
+    private static final class Table {
+        final int capacity;
+        final int mask;
+        final AtomicLongArray slots;
+        final AtomicLongArray bloom;
+        final int bloomMask;
+        volatile int size;
+
+        Table(int capacity) {
+            int slotCount = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            this.capacity = slotCount / 2;
+            this.mask = slotCount - 1;
+            this.slots = new AtomicLongArray(slotCount * 2);
+            // 16 bits per element with 4 probes keeps false positives around 0.25%
+            int bloomWords = Math.max(64, slotCount / 8);
+            this.bloom = new AtomicLongArray(bloomWords);
+            this.bloomMask = bloomWords * 64 - 1;
+        }
+
+        boolean contains(long msb, long lsb) {
+            long h = mix(msb, lsb);
+            if (!mightContain(h))
+                return false;
+            for (int i = (int) h & mask;; i = (i + 1) & mask) {
+                long m = slots.get(i * 2);
+                if (m == 0)
+                    return false;
+                if (m == msb && slots.get(i * 2 + 1) == lsb)
+                    return true;
+            }
+        }
+
+        void add(long msb, long lsb) {
+            long h = mix(msb, lsb);
+            for (int i = (int) h & mask;; i = (i + 1) & mask) {
+                long m = slots.get(i * 2);
+                if (m == msb && slots.get(i * 2 + 1) == lsb)
+                    return;
+                if (m == 0) {
+                    setBloom(h);
+                    slots.set(i * 2 + 1, lsb);
+                    slots.set(i * 2, msb);
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        void copyTo(Table other) {
+            for (int i = 0; i <= mask; i++) {
+                long m = slots.get(i * 2);
+                if (m != 0)
+                    other.add(m, slots.get(i * 2 + 1));
+            }
+        }
+
+        private boolean mightContain(long h) {
+            for (int k = 0; k < 4; k++) {
+                int bit = bloomBit(h, k);
+                if ((bloom.get(bit >>> 6) & (1L << bit)) == 0)
+                    return false;
+            }
+            return true;
+        }
+
+        private void setBloom(long h) {
+            for (int k = 0; k < 4; k++) {
+                int bit = bloomBit(h, k);
+                bloom.getAndUpdate(bit >>> 6, w -> w | (1L << bit));
+            }
+        }
+
+        private int bloomBit(long h, int k) {
+            return ((int) h + k * (int) (h >>> 32)) & bloomMask;
+        }
+
+        private static long mix(long msb, long lsb) {
+            long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.repo.LicenseUsageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts validations per license uuid and enforces the token's {@code usage_limit}. Counts live in memory as one
+ * CAS-updated counter per uuid; increments not yet written are flushed to {@code license_usage} as a single batched
+ * upsert every {@code app.usage.flush-interval-ms} and at shutdown, so requests never write to the database. A
+ * counter starts from the stored count the first time its uuid is used; each flush reads back the stored counts of the
+ * flushed uuids and raises the counters to them, so uses recorded by other instances on the same database count too.
+ * <p>
+ * A crash loses at most the increments of the last flush interval, and instances see each other's uses one flush
+ * interval late. Both can only let a license be used more often than its limit, never fewer times.
+ */
+@Component
+public class UsageMeter {
+    private static final Logger log = LoggerFactory.getLogger(UsageMeter.class);
+
+    private final boolean enabled;
+    private final LicenseUsageRepository usageRepo;
+    private final TransactionTemplate tx;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private static final class Counter {
+        final AtomicLong total;
+        final AtomicLong unflushed = new AtomicLong();
+
+        Counter(long persisted) {
+            this.total = new AtomicLong(persisted);
+        }
+    }
+
+    public UsageMeter(@Value("${app.usage.enabled:false}") boolean enabled,
+            LicenseUsageRepository usageRepo,
+            PlatformTransactionManager txManager) {
+        this.enabled = enabled;
+        this.usageRepo = usageRepo;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records one use of the license. Returns {@code false}, without counting, once {@code limit} uses have been
+     * recorded; a {@code null} limit is counted but never refused.
+     */
+    public boolean tryUse(String uuid, Integer limit) {
+        if (!enabled)
+            return true;
+        Counter c = counter(uuid);
+        for (;;) {
+            long n = c.total.get();
+            if (limit != null && n >= limit)
+                return false;
+            if (c.total.compareAndSet(n, n + 1))
+                break;
+        }
+        c.unflushed.incrementAndGet();
+        return true;
+    }
+
+    public long usage(String uuid) {
+        Counter c = counters.get(uuid);
+        return c != null ? c.total.get() : usageRepo.usageCount(uuid);
+    }
+
+    private Counter counter(String uuid) {
+        Counter c = counters.get(uuid);
+        if (c != null)
+            return c;
+        // read outside the map so a slow query does not block other uuids
+        Counter loaded = new Counter(usageRepo.usageCount(uuid));
+        c = counters.putIfAbsent(uuid, loaded);
+        return c != null ? c : loaded;
+    }
+
+    @Scheduled(fixedDelayString = "${app.usage.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled)
+            return;
+        flushLock.lock();
+        try {
+            Map<String, Long> deltas = new HashMap<>();
+            counters.forEach((uuid, c) -> {
+                long d = c.unflushed.getAndSet(0);
+                if (d > 0)
+                    deltas.put(uuid, d);
+            });
+            if (deltas.isEmpty())
+                return;
+            Map<String, Long> stored;
+            try {
+                stored = tx.execute(status -> usageRepo.addUsage(deltas, Instant.now()));
+            } catch (Exception e) {
+                log.warn("Failed to flush usage for {} licenses, will retry", deltas.size(), e);
+                deltas.forEach((uuid, d) -> counters.get(uuid).unflushed.addAndGet(d));
+                return;
+            }
+            if (stored != null)
+                stored.forEach(this::raise);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Raises the counter to the stored count plus the uses not flushed yet; a use counted while this runs may be
+     * missed, which errs on the side of allowing it.
+     */
+    private void raise(String uuid, long stored) {
+        Counter c = counters.get(uuid);
+        if (c == null)
+            return;
+        for (;;) {
+            long n = c.total.get();
+            long target = stored + c.unflushed.get();
+            if (n >= target || c.total.compareAndSet(n, target))
+                return;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+}
@@ -0,0 +1,4 @@
+package com.notaris.license_system.service;
+
+public record ValidateRequest(String licenseKey, String hwFingerprint, boolean useAes) {
+}
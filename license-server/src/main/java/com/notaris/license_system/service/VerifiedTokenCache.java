@@ -0,0 +1,174 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.crypto.KeyMaterial;
+import com.notaris.license_system.crypto.LicensePayload;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers payloads of tokens whose signature has already been verified, keyed by a SHA-256 digest of the token, so
+ * repeated validations skip signature verification, decryption and parsing. Only the decoded payload is cached:
+ * expiry, hardware binding and revocation are still checked by the caller on every hit.
+ * <p>
+ * Entries expire after {@code app.validation-cache.ttl-ms}. When the cache grows past
+ * {@code app.validation-cache.max-size} it is shrunk by a tenth with CLOCK (second-chance) eviction: a hit sets the
+ * entry's reference bit, and the sweeping hand keeps referenced entries once, clearing the bit, and drops the rest.
+ * Entries are indexed by license uuid for {@link #invalidate}, bound to the {@link KeyMaterial} that verified them and
+ * cleared when the keys change.
+ */
+@Component
+public class VerifiedTokenCache {
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+    // uuid -> keys of its entries; each set is only touched inside compute() on its uuid
+    private final ConcurrentHashMap<String, Set<ByteBuffer>> byUuid = new ConcurrentHashMap<>();
+    // the CLOCK hand, resumed across sweeps; guarded by this
+    private Iterator<Map.Entry<ByteBuffer, Entry>> hand;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    });
+
+    private static final class Entry {
+        final LicensePayload payload;
+        final KeyMaterial keys;
+        final long expiresAt;
+        volatile boolean referenced;
+
+        Entry(LicensePayload payload, KeyMaterial keys, long expiresAt) {
+            this.payload = payload;
+            this.keys = keys;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public VerifiedTokenCache(@Value("${app.validation-cache.enabled:true}") boolean enabled,
+            @Value("${app.validation-cache.max-size:100000}") int maxSize,
+            @Value("${app.validation-cache.ttl-ms:300000}") long ttlMs,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        FunctionCounter.builder("license.validation.cache", hits, LongAdder::sum)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("license.validation.cache", misses, LongAdder::sum)
+                .tag("result", "miss").register(registry);
+        Gauge.builder("license.validation.cache.size", entries, Map::size).register(registry);
+    }
+
+    public LicensePayload get(String token, boolean useAes, KeyMaterial keys) {
+        if (!enabled)
+            return null;
+        ByteBuffer key = key(token, useAes);
+        Entry e = entries.get(key);
+        if (e == null || e.keys != keys || System.nanoTime() - e.expiresAt > 0) {
+            if (e != null)
+                remove(key, e);
+            misses.increment();
+            return null;
+        }
+        // read before write so hits on hot entries don't keep dirtying the cache line
+        if (!e.referenced)
+            e.referenced = true;
+        hits.increment();
+        return e.payload;
+    }
+
+    public void put(String token, boolean useAes, KeyMaterial keys, LicensePayload payload) {
+        if (!enabled)
+            return;
+        ByteBuffer key = key(token, useAes);
+        Entry e = new Entry(payload, keys, System.nanoTime() + ttlNanos);
+        if (payload.uuid() == null) {
+            entries.put(key, e);
+        } else {
+            // indexed and stored atomically with respect to invalidate() of the same uuid
+            byUuid.compute(payload.uuid(), (uuid, set) -> {
+                if (set == null)
+                    set = new HashSet<>(2);
+                set.add(key);
+                entries.put(key, e);
+                return set;
+            });
+        }
+        if (entries.size() > maxSize)
+            evict();
+    }
+
+    public void invalidate(String uuid) {
+        byUuid.computeIfPresent(uuid, (u, set) -> {
+            for (ByteBuffer key : set)
+                entries.remove(key);
+            return null;
+        });
+    }
+
+    @EventListener
+    public void onKeysChanged(KeyManager.KeysChangedEvent event) {
+        entries.clear();
+        byUuid.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private synchronized void evict() {
+        if (entries.size() <= maxSize)
+            return;
+        long now = System.nanoTime();
+        int target = maxSize - maxSize / 10;
+        // two laps at most: the first may only clear reference bits
+        for (long budget = 2L * entries.size() + 1; entries.size() > target && budget > 0; budget--) {
+            if (hand == null || !hand.hasNext()) {
+                hand = entries.entrySet().iterator();
+                if (!hand.hasNext())
+                    break;
+            }
+            Map.Entry<ByteBuffer, Entry> slot = hand.next();
+            Entry e = slot.getValue();
+            if (e.referenced && now - e.expiresAt <= 0)
+                e.referenced = false;
+            else
+                remove(slot.getKey(), e);
+        }
+    }
+
+    private void remove(ByteBuffer key, Entry e) {
+        String uuid = e.payload.uuid();
+        // under the uuid's compute, so a concurrent put() of the same key cannot lose its index entry
+        if (uuid == null || byUuid.computeIfPresent(uuid, (u, set) -> {
+            if (entries.remove(key, e))
+                set.remove(key);
+            return set.isEmpty() ? null : set;
+        }) == null)
+            entries.remove(key, e);
+    }
+
+    private ByteBuffer key(String token, boolean useAes) {
+        MessageDigest md = sha256.get();
+        md.update((byte) (useAes ? 1 : 0));
+        return ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,179 @@
+package com.notaris.license_system.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.notaris.license_system.service.KeyManager;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/api-message-test.db",
+        "app.audit.dir=target/api-message-test-audit",
+        "app.keys.private=target/api-message-test-private.pem",
+        "app.keys.public=target/api-message-test-public.pem",
+        "app.keys.aes=target/api-message-test-aes.key",
+        "app.keys.retired-dir=target/api-message-test-retired-keys" })
+@AutoConfigureMockMvc
+class ApiMessageConverterTest {
+    private static final MediaType SMILE = ApiMessageConverter.APPLICATION_SMILE;
+    private static final TypeReference<Map<String, Object>> OBJECT = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Map<String, Object>>> ARRAY = new TypeReference<>() {
+    };
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    KeyManager keyManager;
+    private MockHttpSession session;
+
+    @BeforeEach
+    void login() throws Exception {
+        if (!keyManager.privateExists())
+            keyManager.generateKeyPair();
+        session = (MockHttpSession) mvc.perform(post("/login").param("username", "admin")
+                        .param("password", "changeMe123"))
+                .andReturn().getRequest().getSession();
+    }
+
+    private ObjectMapper mapper(MediaType type) {
+        return type.equals(MediaType.APPLICATION_CBOR) ? cbor : type.equals(SMILE) ? smile : json;
+    }
+
+    private byte[] createBatch(MediaType contentType, String accept, List<Map<String, Object>> items,
+            MediaType expected) throws Exception {
+        MvcResult started = mvc.perform(post("/api/create/batch").session(session)
+                        .header("X-API-KEY", "token1")
+                        .contentType(contentType)
+                        .header(HttpHeaders.ACCEPT, accept)
+                        .content(mapper(contentType).writeValueAsBytes(items)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult done = mvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+        assertThat(MediaType.parseMediaType(done.getResponse().getContentType())).isEqualTo(expected);
+        return done.getResponse().getContentAsByteArray();
+    }
+
+    private String issue(MediaType format) throws Exception {
+        List<Map<String, Object>> results = mapper(format).readValue(
+                createBatch(format, format.toString(), List.of(Map.of("customer_id", "acme")), format), ARRAY);
+        return (String) results.get(0).get("license_key");
+    }
+
+    private MvcResult validate(MediaType contentType, String accept, Object body) throws Exception {
+        return mvc.perform(post("/api/validate").session(session)
+                        .contentType(contentType)
+                        .header(HttpHeaders.ACCEPT, accept)
+                        .content(mapper(contentType).writeValueAsBytes(body)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    @Test
+    void createBatchStreamsInTheAcceptedFormat() throws Exception {
+        for (MediaType format : List.of(MediaType.APPLICATION_CBOR, SMILE)) {
+            Map<String, Object> bad = new LinkedHashMap<>();
+            bad.put("days_valid", 5);
+            byte[] body = createBatch(format, format.toString(),
+                    List.of(Map.of("customer_id", "acme", "metadata", Map.of("seats", 3)), bad), format);
+
+            List<Map<String, Object>> results = mapper(format).readValue(body, ARRAY);
+            assertThat(results).hasSize(2);
+            assertThat(results.get(0)).containsEntry("index", 0).containsKey("license_key")
+                    .doesNotContainKey("error");
+            assertThat(results.get(1)).containsEntry("index", 1).containsEntry("error", "customer_id is required")
+                    .doesNotContainKey("license_key");
+        }
+    }
+
+    @Test
+    void createBatchFallsBackToJson() throws Exception {
+        byte[] body = createBatch(MediaType.APPLICATION_CBOR, "*/*", List.of(Map.of("customer_id", "acme")),
+                MediaType.APPLICATION_JSON);
+
+        assertThat(json.readValue(body, ARRAY).get(0)).containsKey("license_key");
+    }
+
+    @Test
+    void validateRoundTripsInCborAndSmile() throws Exception {
+        for (MediaType format : List.of(MediaType.APPLICATION_CBOR, SMILE)) {
+            String license = issue(format);
+
+            MvcResult result = validate(format, format.toString(), Map.of("license_key", license));
+
+            assertThat(MediaType.parseMediaType(result.getResponse().getContentType())).isEqualTo(format);
+            Map<String, Object> response = mapper(format).readValue(result.getResponse().getContentAsByteArray(),
+                    OBJECT);
+            assertThat(response).containsEntry("valid", true).containsEntry("revoked", false);
+            assertThat(response.get("license_data")).asInstanceOf(InstanceOfAssertFactories.MAP)
+                    .containsEntry("customer_id", "acme");
+        }
+    }
+
+    @Test
+    void validateWithoutLicenseDataReturnsNull() throws Exception {
+        String license = issue(MediaType.APPLICATION_JSON);
+        String tampered = license.substring(0, license.length() - 4) + "AAAA";
+
+        for (MediaType format : List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, SMILE)) {
+            MvcResult result = validate(format, format.toString(), Map.of("license_key", tampered));
+
+            Map<String, Object> response = mapper(format).readValue(result.getResponse().getContentAsByteArray(),
+                    OBJECT);
+            assertThat(response).containsEntry("valid", false).containsKey("license_data");
+            assertThat(response.get("license_data")).isNull();
+        }
+    }
+
+    @Test
+    void validateFallsBackToJson() throws Exception {
+        MvcResult result = validate(SMILE, "*/*", Map.of("license_key", issue(SMILE)));
+
+        assertThat(MediaType.parseMediaType(result.getResponse().getContentType()))
+                .isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(json.readValue(result.getResponse().getContentAsByteArray(), OBJECT)).containsEntry("valid",
+                true);
+    }
+
+    @Test
+    void validateBatchWritesEachItemWithItsOwnShape() throws Exception {
+        String license = issue(SMILE);
+
+        MvcResult result = mvc.perform(post("/api/validate/batch").session(session)
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smile.writeValueAsBytes(List.of(Map.of("license_key", license),
+                                Map.of("hw_fingerprint", "x")))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<Map<String, Object>> items = smile.readValue(result.getResponse().getContentAsByteArray(), ARRAY);
+        assertThat(items.get(0)).containsEntry("valid", true).containsKey("license_data");
+        assertThat(items.get(1)).containsExactly(Map.entry("error", "license_key is required"));
+    }
+}
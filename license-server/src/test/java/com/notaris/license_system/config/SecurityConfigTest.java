@@ -0,0 +1,39 @@
+package com.notaris.license_system.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecurityConfigTest {
+    private static final String ADMIN = "Basic "
+            + Base64.getEncoder().encodeToString("admin:changeMe123".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void basicAuthIsAcceptedOnActuator() throws Exception {
+        mvc.perform(get("/actuator/health").header(HttpHeaders.AUTHORIZATION, ADMIN))
+                .andExpect(status().isOk());
+        mvc.perform(get("/actuator/health")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void basicAuthIsIgnoredByTheUi() throws Exception {
+        mvc.perform(get("/").header(HttpHeaders.AUTHORIZATION, ADMIN))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.notaris.license_system.repo;
+
+import com.notaris.license_system.model.GeneratedLicense;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerStatsRepositoryCustomImplTest {
+    private static final long DAY = 86_400_000L;
+
+    @TempDir
+    Path tmp;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private CustomerStatsRepositoryCustomImpl stats;
+
+    @BeforeEach
+    void createSchema() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tmp.resolve("stats.db"), true);
+        jdbc = new JdbcTemplate(dataSource);
+        // only the columns the stats SQL reads; instants as epoch millis, as Hibernate stores them
+        for (String table : List.of("generated_license", "archived_license"))
+            jdbc.execute("create table " + table + " (uuid varchar(64) not null unique, "
+                    + "customer_id varchar(255) not null, issue_date bigint not null, expiry_date bigint not null)");
+        for (String table : List.of("revoked_license", "archived_revocation"))
+            jdbc.execute("create table " + table + " (uuid varchar(64) not null unique)");
+        jdbc.execute("create table customer_stats (customer_id varchar(255) primary key, total bigint not null, "
+                + "revoked bigint not null, expired bigint not null)");
+        jdbc.execute("create table license_expiry_bucket (id integer primary key, customer_id varchar(255) not null, "
+                + "expiry_day bigint not null, active bigint not null)");
+        jdbc.execute("create table license_issuance_day (epoch_day bigint primary key, issued bigint not null)");
+        new StatsSchema(jdbc, null).create();
+        stats = new CustomerStatsRepositoryCustomImpl(jdbc);
+    }
+
+    @AfterEach
+    void close() {
+        dataSource.destroy();
+    }
+
+    private GeneratedLicense issue(String customerId, long issueMillis, long expiryMillis) {
+        GeneratedLicense gl = new GeneratedLicense();
+        gl.setUuid(UUID.randomUUID().toString());
+        gl.setCustomerId(customerId);
+        gl.setIssueDate(Instant.ofEpochMilli(issueMillis));
+        gl.setExpiryDate(Instant.ofEpochMilli(expiryMillis));
+        jdbc.update("insert into generated_license (uuid, customer_id, issue_date, expiry_date) values (?, ?, ?, ?)",
+                gl.getUuid(), gl.getCustomerId(), issueMillis, expiryMillis);
+        stats.addIssued(List.of(gl));
+        return gl;
+    }
+
+    private void revoke(GeneratedLicense gl) {
+        jdbc.update("insert into revoked_license (uuid) values (?)", gl.getUuid());
+        stats.addRevoked(gl.getCustomerId(), gl.getExpiryDate());
+    }
+
+    /** total, revoked, expired */
+    private List<Long> row(String customerId) {
+        return jdbc.queryForObject("select total, revoked, expired from customer_stats where customer_id = ?",
+                (rs, i) -> List.of(rs.getLong(1), rs.getLong(2), rs.getLong(3)), customerId);
+    }
+
+    @Test
+    void incrementalCountersMatchRebuildAfterIssueRevokeAndRollover() {
+        issue("acme", 0, 5 * DAY);
+        GeneratedLicense revokedEarly = issue("acme", 0, 20 * DAY);
+        GeneratedLicense revokedLate = issue("acme", DAY, 5 * DAY);
+        issue("acme", DAY, 20 * DAY);
+        revoke(revokedEarly);
+
+        assertThat(stats.rollover(10)).isEqualTo(1);
+        // its bucket is gone, so the revocation has to come out of expired
+        revoke(revokedLate);
+
+        assertThat(row("acme")).containsExactly(4L, 2L, 1L);
+        assertThat(stats.reconcile(10)).isZero();
+        assertThat(row("acme")).containsExactly(4L, 2L, 1L);
+        assertThat(jdbc.query("select expiry_day, active from license_expiry_bucket",
+                (rs, i) -> List.of(rs.getLong(1), rs.getLong(2)))).containsExactly(List.of(20L, 1L));
+    }
+
+    @Test
+    void revokingAfterRolloverTakesTheLicenseOutOfExpired() {
+        GeneratedLicense gl = issue("acme", 0, 5 * DAY);
+        stats.rollover(10);
+        assertThat(row("acme")).containsExactly(1L, 0L, 1L);
+
+        revoke(gl);
+
+        assertThat(row("acme")).containsExactly(1L, 1L, 0L);
+        assertThat(jdbc.queryForObject("select count(*) from license_expiry_bucket", Long.class)).isZero();
+    }
+
+    @Test
+    void reconcileSplitsRevokedFromExpiredAndCountsArchivedLicenses() {
+        // expired but revoked: counted once, as revoked
+        revoke(issue("acme", 0, 5 * DAY));
+        issue("acme", 0, 5 * DAY);
+        issue("acme", 0, 20 * DAY);
+        jdbc.update("insert into archived_license (uuid, customer_id, issue_date, expiry_date) values (?, ?, ?, ?)",
+                "archived-1", "acme", 0, DAY);
+        jdbc.update("insert into archived_license (uuid, customer_id, issue_date, expiry_date) values (?, ?, ?, ?)",
+                "archived-2", "acme", 0, DAY);
+        jdbc.update("insert into archived_revocation (uuid) values (?)", "archived-2");
+
+        // the archived rows were never counted incrementally
+        assertThat(stats.reconcile(10)).isEqualTo(1);
+
+        assertThat(row("acme")).containsExactly(5L, 2L, 2L);
+        assertThat(jdbc.queryForObject("select issued from license_issuance_day where epoch_day = 0", Long.class))
+                .isEqualTo(5L);
+        assertThat(stats.reconcile(10)).isZero();
+    }
+
+    @Test
+    void instantsBefore1970LandOnTheSameDayInBothPaths() {
+        issue("acme", -1, -1);
+        assertThat(CustomerStatsRepositoryCustomImpl.epochDay(Instant.ofEpochMilli(-1))).isEqualTo(-1);
+
+        assertThat(stats.reconcile(0)).isZero();
+
+        assertThat(row("acme")).containsExactly(1L, 0L, 1L);
+        assertThat(jdbc.queryForObject("select epoch_day from license_issuance_day", Long.class)).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,131 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.config.ApiKeyConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdmissionControl control(double rate, int burst, int maxConcurrent, String overrides) {
+        return new AdmissionControl(new ApiKeyConfig("k1,k2"), registry, rate, burst, maxConcurrent, overrides);
+    }
+
+    private double rejected(String reason) {
+        return registry.find("license.api.rejected").tag("reason", reason).counters().stream()
+                .mapToDouble(c -> c.count()).sum();
+    }
+
+    @Test
+    void unknownAndUnlimitedKeysHaveNoLimiter() {
+        assertThat(control(10, 5, 0, "").limiter("nope")).isNull();
+        assertThat(control(10, 5, 0, "").limiter(null)).isNull();
+        assertThat(control(0, 0, 0, "").limiter("k1")).isNull();
+        assertThat(control(0, 0, 0, "k2:5:1:0").limiter("k2")).isNotNull();
+    }
+
+    @Test
+    void limiterIsSharedPerKey() {
+        AdmissionControl control = control(10, 5, 0, "");
+        assertThat(control.limiter("k1")).isSameAs(control.limiter("k1")).isNotSameAs(control.limiter("k2"));
+    }
+
+    @Test
+    void rateLimitAdmitsTheBurstThenAsksToRetry() {
+        AdmissionControl.Limiter limiter = control(1, 3, 0, "").limiter("k1");
+
+        for (int i = 0; i < 3; i++)
+            assertThat(limiter.tryAcquire()).as("request %d", i).isZero();
+        assertThat(limiter.tryAcquire()).isEqualTo(1);
+        assertThat(rejected("rate")).isEqualTo(1);
+    }
+
+    @Test
+    void concurrencyCapRejectsUntilReleased() {
+        AdmissionControl.Limiter limiter = control(0, 0, 2, "").limiter("k1");
+
+        assertThat(limiter.tryAcquire()).isZero();
+        assertThat(limiter.tryAcquire()).isZero();
+        assertThat(limiter.tryAcquire()).isEqualTo(1);
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isZero();
+        assertThat(rejected("concurrency")).isEqualTo(1);
+    }
+
+    @Test
+    void rateRejectionDoesNotLeakAConcurrencySlot() {
+        AdmissionControl.Limiter limiter = control(1, 1, 1, "").limiter("k1");
+
+        assertThat(limiter.tryAcquire()).isZero();
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isPositive();
+        assertThat(limiter.tryAcquire()).isPositive();
+        // the rejected requests gave their slot back, so only the rate limit applied
+        assertThat(rejected("concurrency")).isZero();
+    }
+
+    @Test
+    void overridesReplaceTheDefaultsForTheirKey() {
+        AdmissionControl control = control(0, 0, 1, "k2:0:0:3");
+
+        AdmissionControl.Limiter k2 = control.limiter("k2");
+        for (int i = 0; i < 3; i++)
+            assertThat(k2.tryAcquire()).isZero();
+        assertThat(k2.tryAcquire()).isEqualTo(1);
+
+        AdmissionControl.Limiter k1 = control.limiter("k1");
+        assertThat(k1.tryAcquire()).isZero();
+        assertThat(k1.tryAcquire()).isEqualTo(1);
+    }
+
+    @Test
+    void malformedOverridesAreRejected() {
+        assertThatThrownBy(() -> control(0, 0, 0, "k1:5:1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrencyCapHoldsUnderContention() throws Exception {
+        AdmissionControl.Limiter limiter = control(0, 0, 3, "").limiter("k1");
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 20_000; i++) {
+                    if (limiter.tryAcquire() != 0)
+                        continue;
+                    admitted.incrementAndGet();
+                    maxSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    inFlight.decrementAndGet();
+                    limiter.release();
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread t : threads)
+            t.join();
+
+        assertThat(maxSeen.get()).isBetween(1, 3);
+        assertThat(admitted.get()).isPositive();
+        // every slot was given back
+        for (int i = 0; i < 3; i++)
+            assertThat(limiter.tryAcquire()).isZero();
+        assertThat(limiter.tryAcquire()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,94 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.controller.AuditLogHealthIndicator;
+import com.notaris.license_system.crypto.LicenseValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.health.Status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogTest {
+    @TempDir
+    Path tmp;
+    private AuditLog auditLog;
+
+    private AuditLog start(Path dir) throws Exception {
+        auditLog = new AuditLog(true, dir.toString(), 1024, 1, 10, 0, false, 10, 50,
+                new LicenseMetrics(new SimpleMeterRegistry()));
+        auditLog.start();
+        return auditLog;
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (auditLog != null)
+            auditLog.stop();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++)
+            Thread.sleep(10);
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    @Test
+    void recordsAndScansNewestFirst() throws Exception {
+        AuditLog log = start(tmp.resolve("audit"));
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+
+        log.record(a, LicenseValidator.Outcome.VALID, null, "10.0.0.1");
+        log.record(b, LicenseValidator.Outcome.REVOKED, "hw-1", "::1");
+
+        await(() -> scan(log, null).size() == 2);
+        List<AuditLog.Entry> entries = scan(log, null);
+        assertThat(entries).extracting(AuditLog.Entry::uuid).containsExactly(b, a);
+        assertThat(entries.get(1).caller()).isEqualTo("10.0.0.1");
+        assertThat(entries.get(0).outcome()).isEqualTo(LicenseValidator.Outcome.REVOKED);
+        assertThat(entries.get(0).hwHashed()).isTrue();
+        assertThat(scan(log, a)).extracting(AuditLog.Entry::uuid).containsExactly(a);
+    }
+
+    @Test
+    void keepsRetryingAfterAWriteFailureAndReportsIt() throws Exception {
+        Path dir = tmp.resolve("audit");
+        AuditLog log = start(dir);
+        AuditLogHealthIndicator health = new AuditLogHealthIndicator(log);
+        assertThat(health.health().getStatus()).isEqualTo(Status.UP);
+
+        // no segment can be created while the directory is a plain file
+        Files.delete(dir);
+        Files.createFile(dir);
+        String uuid = UUID.randomUUID().toString();
+        log.record(uuid, LicenseValidator.Outcome.VALID, null, null);
+
+        await(() -> log.failure() != null);
+        assertThat(log.isRunning()).isTrue();
+        assertThat(health.health().getStatus()).isEqualTo(Status.DOWN);
+
+        Files.delete(dir);
+        Files.createDirectory(dir);
+
+        await(() -> log.failure() == null);
+        assertThat(health.health().getStatus()).isEqualTo(Status.UP);
+        // the event that could not be written at first was kept
+        await(() -> scan(log, uuid).size() == 1);
+    }
+
+    private static List<AuditLog.Entry> scan(AuditLog log, String uuid) {
+        try {
+            return log.scan(uuid, null, null, 10);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
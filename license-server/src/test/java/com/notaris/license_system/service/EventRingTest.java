@@ -0,0 +1,112 @@
+package com.notaris.license_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventRingTest {
+
+    @Test
+    void rejectsCapacityThatIsNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new EventRing<>(3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new EventRing<>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pollsInOfferOrder() {
+        EventRing<Integer> ring = new EventRing<>(8);
+
+        assertThat(ring.poll()).isNull();
+        for (int i = 0; i < 5; i++)
+            assertThat(ring.offer(i)).isTrue();
+
+        assertThat(ring.size()).isEqualTo(5);
+        for (int i = 0; i < 5; i++)
+            assertThat(ring.poll()).isEqualTo(i);
+        assertThat(ring.poll()).isNull();
+        assertThat(ring.size()).isZero();
+    }
+
+    @Test
+    void refusesOffersWhenFullAndReusesSlotsAfterPoll() {
+        EventRing<Integer> ring = new EventRing<>(4);
+        for (int i = 0; i < 4; i++)
+            assertThat(ring.offer(i)).isTrue();
+
+        assertThat(ring.offer(4)).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+
+        assertThat(ring.poll()).isZero();
+        assertThat(ring.offer(4)).isTrue();
+        assertThat(ring.offer(5)).isFalse();
+
+        // several laps around the ring
+        List<Integer> seen = new ArrayList<>();
+        for (int i = 5; i < 40; i++) {
+            seen.add(ring.poll());
+            assertThat(ring.offer(i)).isTrue();
+        }
+        for (Integer e; (e = ring.poll()) != null;)
+            seen.add(e);
+        assertThat(seen).hasSize(39).isSorted();
+        assertThat(seen.get(0)).isEqualTo(1);
+    }
+
+    @Test
+    void deliversEveryEventFromConcurrentProducersOnce() throws Exception {
+        int producers = 4, perProducer = 20_000;
+        EventRing<Long> ring = new EventRing<>(1024);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long id = p;
+                futures.add(pool.submit(() -> {
+                    go.await();
+                    for (long i = 0; i < perProducer; i++) {
+                        Long e = id << 32 | i;
+                        while (!ring.offer(e))
+                            Thread.yield();
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+
+            // per producer, events must arrive in the order that producer offered them
+            long[] next = new long[producers];
+            long received = 0, outOfOrder = 0, deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received < (long) producers * perProducer && System.nanoTime() < deadline) {
+                Long e = ring.poll();
+                if (e == null) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int p = (int) (e >>> 32);
+                if ((e & 0xFFFFFFFFL) != next[p])
+                    outOfOrder++;
+                next[p]++;
+                received++;
+            }
+            for (Future<?> f : futures)
+                f.get(10, TimeUnit.SECONDS);
+
+            assertThat(outOfOrder).isZero();
+            assertThat(next).containsOnly(perProducer);
+            assertThat(ring.poll()).isNull();
+            assertThat(ring.size()).isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.model.GeneratedLicense;
+import com.notaris.license_system.repo.GeneratedLicenseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class IssuanceWriterTest {
+    private final GeneratedLicenseRepository repo = mock(GeneratedLicenseRepository.class);
+    private final List<String> committed = Collections.synchronizedList(new ArrayList<>());
+    // long max delay so all submissions land in one group
+    private final IssuanceWriter writer = new IssuanceWriter(repo, mock(PlatformTransactionManager.class),
+            new LicenseMetrics(new SimpleMeterRegistry()), mock(LicenseStats.class), 500, 200, 5_000);
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        writer.stop();
+    }
+
+    private static GeneratedLicense license(String uuid) {
+        GeneratedLicense gl = new GeneratedLicense();
+        gl.setUuid(uuid);
+        return gl;
+    }
+
+    @Test
+    void commitsTheGroupTogether() {
+        doAnswer(inv -> {
+            List<GeneratedLicense> rows = inv.getArgument(0);
+            rows.forEach(r -> committed.add(r.getUuid()));
+            return null;
+        }).when(repo).insertAll(anyList());
+        writer.start();
+
+        CompletableFuture<Void> a = writer.submit(license("a"));
+        CompletableFuture<Void> b = writer.submit(license("b"));
+
+        CompletableFuture.allOf(a, b).join();
+        assertThat(committed).containsExactly("a", "b");
+    }
+
+    @Test
+    void failedGroupIsRetriedRowByRowAndOnlyTheBadRowFails() {
+        doAnswer(inv -> {
+            List<GeneratedLicense> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(r -> r.getUuid().equals("dup")))
+                throw new DataIntegrityViolationException("UNIQUE constraint failed: generated_license.uuid");
+            rows.forEach(r -> committed.add(r.getUuid()));
+            return null;
+        }).when(repo).insertAll(anyList());
+        writer.start();
+
+        CompletableFuture<Void> a = writer.submit(license("a"));
+        CompletableFuture<Void> dup = writer.submit(license("dup"));
+        CompletableFuture<Void> b = writer.submit(license("b"));
+
+        a.join();
+        b.join();
+        assertThatThrownBy(dup::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        assertThat(committed).containsExactly("a", "b");
+    }
+
+    @Test
+    void submitAfterStopFailsImmediately() throws InterruptedException {
+        writer.start();
+        writer.stop();
+
+        CompletableFuture<Void> late = writer.submit(license("late"));
+
+        assertThat(late).isCompletedExceptionally();
+        assertThatThrownBy(() -> writer.write(license("later"))).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void writerDyingFromAnErrorFailsPendingAndLaterRows() throws InterruptedException {
+        doAnswer(inv -> {
+            throw new StackOverflowError();
+        }).when(repo).insertAll(anyList());
+        writer.start();
+
+        CompletableFuture<Void> a = writer.submit(license("a"));
+
+        assertThatThrownBy(a::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        // the writer stops accepting rows just after failing the group; rows queued meanwhile are failed too
+        for (int i = 0; i < 100 && !writer.submit(license("b")).isDone(); i++)
+            Thread.sleep(10);
+        assertThat(writer.submit(license("c"))).isCompletedExceptionally();
+        assertThat(committed).isEmpty();
+    }
+}
@@ -0,0 +1,93 @@
+package com.notaris.license_system.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notaris.license_system.model.ArchivedLicense;
+import com.notaris.license_system.model.GeneratedLicense;
+import com.notaris.license_system.repo.ArchivedLicenseRepository;
+import com.notaris.license_system.repo.GeneratedLicenseRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LicenseExporterTest {
+    private static final Instant NOW = Instant.now();
+
+    private final GeneratedLicenseRepository generatedRepo = mock(GeneratedLicenseRepository.class);
+    private final ArchivedLicenseRepository archivedRepo = mock(ArchivedLicenseRepository.class);
+    private final RevocationIndex revocationIndex = mock(RevocationIndex.class);
+    private final LicenseExporter exporter = new LicenseExporter(generatedRepo, archivedRepo, revocationIndex,
+            mock(EntityManager.class));
+
+    @BeforeEach
+    void rows() {
+        GeneratedLicense json = generated(1L, "u1", "{\"plan\":\"pro\",\"seats\":[1,2]}");
+        GeneratedLicense text = generated(2L, "u2", "plan=pro, \"legacy\"");
+        ArchivedLicense archived = new ArchivedLicense();
+        archived.setId(3L);
+        archived.setUuid("u3");
+        archived.setCustomerId("acme");
+        archived.setIssueDate(NOW.minus(800, ChronoUnit.DAYS));
+        archived.setExpiryDate(NOW.minus(400, ChronoUnit.DAYS));
+        archived.setCreatedAt(NOW.minus(800, ChronoUnit.DAYS));
+        when(generatedRepo.streamAll()).thenAnswer(inv -> Stream.of(json, text));
+        when(archivedRepo.streamAll()).thenAnswer(inv -> Stream.of(archived));
+        when(revocationIndex.isRevoked("u3")).thenReturn(true);
+    }
+
+    private static GeneratedLicense generated(long id, String uuid, String metadata) {
+        GeneratedLicense gl = new GeneratedLicense();
+        gl.setId(id);
+        gl.setUuid(uuid);
+        gl.setCustomerId("acme");
+        gl.setIssueDate(NOW);
+        gl.setExpiryDate(NOW.plus(30, ChronoUnit.DAYS));
+        gl.setMetadataJson(metadata);
+        gl.setCreatedAt(NOW);
+        return gl;
+    }
+
+    private String export(LicenseExporter.Format format, boolean includeArchived) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(format, includeArchived, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void ndjsonIncludesArchivedRowsAndStaysValidForTextMetadata() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : export(LicenseExporter.Format.NDJSON, true).split("\n"))
+            lines.add(mapper.readTree(line));
+
+        assertThat(lines).extracting(n -> n.get("uuid").asText()).containsExactly("u1", "u2", "u3");
+        assertThat(lines.get(0).get("metadata").get("seats").size()).isEqualTo(2);
+        assertThat(lines.get(1).get("metadata").asText()).isEqualTo("plan=pro, \"legacy\"");
+        assertThat(lines.get(0).get("archived").asBoolean()).isFalse();
+        assertThat(lines.get(2).get("archived").asBoolean()).isTrue();
+        assertThat(lines.get(2).get("status").asText()).isEqualTo("Revoked");
+        assertThat(lines.get(0).get("status").asText()).isEqualTo("Valid");
+    }
+
+    @Test
+    void archiveCanBeExcluded() throws Exception {
+        String csv = export(LicenseExporter.Format.CSV, false);
+
+        List<String> lines = csv.lines().toList();
+        assertThat(lines.get(0)).endsWith(",created_at,archived");
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(2)).contains("\"plan=pro, \"\"legacy\"\"\"").endsWith(",false");
+    }
+}
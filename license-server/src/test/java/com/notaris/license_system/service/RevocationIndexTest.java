@@ -0,0 +1,91 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.model.RevokedLicense;
+import com.notaris.license_system.repo.ArchivedLicenseRepository;
+import com.notaris.license_system.repo.RevokedLicenseRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RevocationIndexTest {
+    private final RevokedLicenseRepository revokedRepo = mock(RevokedLicenseRepository.class);
+    private final ArchivedLicenseRepository archivedRepo = mock(ArchivedLicenseRepository.class);
+    private final RevocationIndex index = new RevocationIndex(revokedRepo, archivedRepo);
+
+    private static RevokedLicense revoked(long id, String uuid, Instant at) {
+        RevokedLicense rl = new RevokedLicense();
+        rl.setId(id);
+        rl.setUuid(uuid);
+        rl.setRevokedAt(at);
+        return rl;
+    }
+
+    @Test
+    void loadsLiveArchivedAndNonUuidRevocations() {
+        String live = UUID.randomUUID().toString();
+        String archived = UUID.randomUUID().toString();
+        when(revokedRepo.findAll()).thenReturn(List.of(revoked(1, live, Instant.now()),
+                revoked(2, "legacy-42", Instant.now())));
+        when(archivedRepo.findArchivedRevocationUuids()).thenReturn(List.of(archived));
+
+        index.load();
+
+        assertThat(index.isRevoked(live)).isTrue();
+        assertThat(index.isRevoked(archived)).isTrue();
+        assertThat(index.isRevoked("legacy-42")).isTrue();
+        assertThat(index.isRevoked(UUID.randomUUID().toString())).isFalse();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void refreshPicksUpRowsByIdEvenWithOldRevokedAt() {
+        String first = UUID.randomUUID().toString();
+        String imported = UUID.randomUUID().toString();
+        when(revokedRepo.findAll()).thenReturn(List.of(revoked(5, first, Instant.now())));
+        when(archivedRepo.findArchivedRevocationUuids()).thenReturn(List.of());
+        index.load();
+
+        // another instance imported a revocation dated years ago
+        when(revokedRepo.maxId()).thenReturn(6L);
+        when(revokedRepo.findUuidsInRange(5, 6)).thenReturn(List.of(imported));
+        index.refresh();
+
+        assertThat(index.isRevoked(imported)).isTrue();
+    }
+
+    @Test
+    void refreshSkipsTheQueryWhenNothingIsNew() {
+        when(revokedRepo.findAll()).thenReturn(List.of(revoked(3, UUID.randomUUID().toString(), Instant.now())));
+        when(archivedRepo.findArchivedRevocationUuids()).thenReturn(List.of());
+        index.load();
+        when(revokedRepo.maxId()).thenReturn(3L);
+
+        index.refresh();
+
+        verify(revokedRepo, never()).findUuidsInRange(anyLong(), anyLong());
+    }
+
+    @Test
+    void indexGrowsPastItsInitialCapacity() {
+        when(revokedRepo.findAll()).thenReturn(List.of());
+        when(archivedRepo.findArchivedRevocationUuids()).thenReturn(List.of());
+        index.load();
+        List<String> uuids = Stream.generate(() -> UUID.randomUUID().toString()).limit(5000).toList();
+
+        uuids.forEach(index::add);
+
+        assertThat(uuids).allMatch(index::isRevoked);
+        assertThat(index.revokedAmong(List.of(uuids.get(0), UUID.randomUUID().toString())))
+                .containsExactly(uuids.get(0));
+    }
+}
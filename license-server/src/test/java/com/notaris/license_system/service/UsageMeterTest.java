@@ -0,0 +1,143 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.repo.LicenseUsageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UsageMeterTest {
+    private final LicenseUsageRepository repo = mock(LicenseUsageRepository.class);
+    private final UsageMeter meter = new UsageMeter(true, repo, mock(PlatformTransactionManager.class));
+
+    @Test
+    void refusesOnceTheLimitIsReached() {
+        assertThat(meter.tryUse("a", 2)).isTrue();
+        assertThat(meter.tryUse("a", 2)).isTrue();
+        assertThat(meter.tryUse("a", 2)).isFalse();
+
+        assertThat(meter.usage("a")).isEqualTo(2);
+    }
+
+    @Test
+    void countsButNeverRefusesWithoutLimit() {
+        for (int i = 0; i < 100; i++)
+            assertThat(meter.tryUse("a", null)).isTrue();
+
+        assertThat(meter.usage("a")).isEqualTo(100);
+    }
+
+    @Test
+    void disabledMeterNeitherCountsNorReads() {
+        UsageMeter off = new UsageMeter(false, repo, mock(PlatformTransactionManager.class));
+
+        assertThat(off.tryUse("a", 0)).isTrue();
+        off.flush();
+
+        verify(repo, never()).usageCount(any());
+        verify(repo, never()).addUsage(anyMap(), any());
+    }
+
+    @Test
+    void startsFromTheStoredCountOnFirstUse() {
+        when(repo.usageCount("a")).thenReturn(4L);
+
+        assertThat(meter.tryUse("a", 5)).isTrue();
+        assertThat(meter.tryUse("a", 5)).isFalse();
+        meter.tryUse("a", 5);
+
+        verify(repo, times(1)).usageCount("a");
+    }
+
+    @Test
+    void concurrentUsesNeverExceedTheLimit() throws Exception {
+        int threads = 8, limit = 1_000;
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++)
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < limit; i++)
+                        if (meter.tryUse("a", limit))
+                            allowed.incrementAndGet();
+                }));
+            for (Future<?> f : futures)
+                f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(allowed.get()).isEqualTo(limit);
+        assertThat(meter.usage("a")).isEqualTo(limit);
+    }
+
+    @Test
+    void flushWritesDeltasOnce() {
+        meter.tryUse("a", null);
+        meter.tryUse("a", null);
+        meter.tryUse("b", null);
+        when(repo.addUsage(anyMap(), any())).thenReturn(Map.of("a", 2L, "b", 1L));
+
+        meter.flush();
+        meter.flush();
+
+        verify(repo, times(1)).addUsage(eq(Map.of("a", 2L, "b", 1L)), any());
+    }
+
+    @Test
+    void failedFlushRestoresDeltasForTheNextOne() {
+        when(repo.addUsage(anyMap(), any()))
+                .thenThrow(new DataAccessResourceFailureException("locked"))
+                .thenReturn(Map.of("a", 2L));
+        meter.tryUse("a", null);
+        meter.flush();
+
+        meter.tryUse("a", null);
+        meter.flush();
+
+        verify(repo).addUsage(eq(Map.of("a", 1L)), any());
+        verify(repo).addUsage(eq(Map.of("a", 2L)), any());
+        assertThat(meter.usage("a")).isEqualTo(2);
+    }
+
+    @Test
+    void flushPicksUpUsesStoredByOtherInstances() {
+        assertThat(meter.tryUse("a", 10)).isTrue();
+        // another instance has flushed 8 uses in the meantime
+        when(repo.addUsage(anyMap(), any())).thenReturn(Map.of("a", 9L));
+        meter.flush();
+
+        assertThat(meter.usage("a")).isEqualTo(9);
+        assertThat(meter.tryUse("a", 10)).isTrue();
+        assertThat(meter.tryUse("a", 10)).isFalse();
+    }
+
+    @Test
+    void storedCountNeverLowersTheCounter() {
+        meter.tryUse("a", null);
+        meter.tryUse("a", null);
+        when(repo.addUsage(anyMap(), any())).thenReturn(Map.of("a", 1L));
+
+        meter.flush();
+
+        assertThat(meter.usage("a")).isEqualTo(2);
+    }
+}
@@ -0,0 +1,73 @@
+package com.notaris.license_system.service;
+
+import com.notaris.license_system.crypto.KeyMaterial;
+import com.notaris.license_system.crypto.LicensePayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+    private final KeyMaterial keys = new KeyMaterial(null, null, List.of(), null, null, null);
+
+    private static LicensePayload payload(String uuid) {
+        Instant now = Instant.now();
+        return new LicensePayload("2.0", "acme", now, now.plusSeconds(3600), uuid, null, null, null);
+    }
+
+    private VerifiedTokenCache cache(int maxSize, long ttlMs) {
+        return new VerifiedTokenCache(true, maxSize, ttlMs, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void returnsCachedPayloadOnlyForSameKeysAndMode() {
+        VerifiedTokenCache cache = cache(10, 60_000);
+        LicensePayload p = payload("u1");
+        cache.put("token", false, keys, p);
+
+        assertThat(cache.get("token", false, keys)).isSameAs(p);
+        assertThat(cache.get("token", true, keys)).isNull();
+        assertThat(cache.get("token", false, new KeyMaterial(null, null, List.of(), null, null, null))).isNull();
+    }
+
+    @Test
+    void expiredEntriesMiss() {
+        VerifiedTokenCache cache = cache(10, 0);
+        cache.put("token", false, keys, payload("u1"));
+
+        assertThat(cache.get("token", false, keys)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void evictionKeepsRecentlyReadEntries() {
+        VerifiedTokenCache cache = cache(100, 60_000);
+        cache.put("hot", false, keys, payload("hot"));
+        for (int round = 0; round < 20; round++) {
+            assertThat(cache.get("hot", false, keys)).as("round %d", round).isNotNull();
+            for (int i = 0; i < 50; i++)
+                cache.put("cold-" + round + "-" + i, false, keys, payload("c" + round + "-" + i));
+            assertThat(cache.size()).isLessThanOrEqualTo(100);
+        }
+        assertThat(cache.get("hot", false, keys)).isNotNull();
+    }
+
+    @Test
+    void invalidateRemovesEveryEntryOfTheUuid() {
+        VerifiedTokenCache cache = cache(10, 60_000);
+        cache.put("a", false, keys, payload("u1"));
+        cache.put("a", true, keys, payload("u1"));
+        cache.put("b", false, keys, payload("u2"));
+
+        cache.invalidate("u1");
+
+        assertThat(cache.get("a", false, keys)).isNull();
+        assertThat(cache.get("a", true, keys)).isNull();
+        assertThat(cache.get("b", false, keys)).isNotNull();
+        cache.invalidate("unknown");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}
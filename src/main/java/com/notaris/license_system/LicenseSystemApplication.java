@@ -1,13 +0,0 @@
-package com.notaris.license_system;
-
-import org.springframework.boot.SpringApplication;
-import org.springframework.boot.autoconfigure.SpringBootApplication;
-
-@SpringBootApplication
-public class LicenseSystemApplication {
-
-	public static void main(String[] args) {
-		SpringApplication.run(LicenseSystemApplication.class, args);
-	}
-
-}